@@ -110,6 +110,10 @@ public class App {
     System.out.println("Enable Partial Order Reduction? (y/n)");
     String input = scanner.nextLine();
     pddlParser.setReduce(input.toLowerCase().charAt(0) != 'n');
+    System.out.println("Enable symmetry reduction? (y/n)");
+    pddlParser.setSymmetry(scanner.nextLine().toLowerCase().charAt(0) == 'y');
+    System.out.println("Drop fluents irrelevant to the initial state and goal? (y/n)");
+    pddlParser.setRelevance(scanner.nextLine().toLowerCase().charAt(0) == 'y');
 
     System.out.println("Enable LTS Nodes/Edges logging? (y/n)");
     boolean ltsLogging = scanner.nextLine().toLowerCase().charAt(0) == 'y';
@@ -160,6 +164,10 @@ public class App {
 
   private void checkExpression(String expressionString) throws ParseException {
     Expression expression = Expression.of(expressionString);
+    if (!pddlParser.preserves(expression)) {
+      System.out.println("The reductions in use may change the result of this expression, reload the LTS without them\n");
+      return;
+    }
 
     GraphLogger automataLogger = null;
     System.out.println("Enable KH-Automaton Nodes/Edges logging? (y/n)");
@@ -37,7 +37,7 @@ public interface NonDeterministicAutomaton<State, Symbol> extends Automaton<Stat
    * Get the set of states reachable from the given state
    * by consuming empty transitions consecutively
    * @param state the source state
-   * @return the set of target states
+   * @return the set of target states, which may be unmodifiable
    */
   Set<State> lambdaClosure(State state);
 
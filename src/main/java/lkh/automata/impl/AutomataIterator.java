@@ -1,20 +1,27 @@
 package lkh.automata.impl;
 
-import lkh.utils.Pair;
-
 import java.util.*;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 
 public class AutomataIterator<State, Symbol> implements Iterator<List<Symbol>> {
   private final GraphAutomaton<State, Symbol> automaton;
   private final int limit;
-  private final Queue<StateDescriptor<State, Symbol>> queue;
+  private final Map<State, Integer> distances;
+  private final Queue<PathNode<State, Symbol>> queue;
+  private final PathMarks<State, Symbol> marks = new PathMarks<>();
 
   public AutomataIterator(GraphAutomaton<State, Symbol> automaton, int limit) {
     this.automaton = automaton;
     this.limit = limit;
-    queue = new LinkedList<>();
-    queue.add(new StateDescriptor<>(automaton.getInitialState()));
+    this.distances = AutomataOperations.distancesToFinal(automaton);
+    queue = new ArrayDeque<>();
+
+    State initialState = automaton.getInitialState();
+    if (reachesFinal(initialState, 0)) {
+      queue.add(new PathNode<>(initialState, marks.id(initialState)));
+    }
   }
 
   /**
@@ -33,11 +40,37 @@ public class AutomataIterator<State, Symbol> implements Iterator<List<Symbol>> {
   @Override
   public List<Symbol> next() {
     findAccepted();
-    StateDescriptor<State, Symbol> state = queue.poll();
-    if (state == null) return null;
+    PathNode<State, Symbol> node = queue.poll();
+    if (node == null) return null;
 
-    advance(state);
-    return state.string();
+    advance(node);
+    return node.string();
+  }
+
+  /**
+   * Get the next string accepted by the automaton with a length shorter than the limit, encoded as integers.
+   * Unlike next(), no list is built for the string.
+   * @param encoder a function giving the code of each symbol
+   * @return the codes of the symbols of the next accepted string, null if non exists
+   */
+  public int[] nextEncoded(ToIntFunction<? super Symbol> encoder) {
+    return nextEncoded(encoder, () -> false);
+  }
+
+  /**
+   * Get the next string accepted by the automaton with a length shorter than the limit, encoded as integers,
+   * giving up when the stop condition holds.
+   * The condition is checked before each expansion, and the search can be resumed by a later call.
+   * @param encoder a function giving the code of each symbol
+   * @param stop a condition that ends the search when it returns true
+   * @return the codes of the symbols of the next accepted string, null if non exists or the search was stopped
+   */
+  public int[] nextEncoded(ToIntFunction<? super Symbol> encoder, BooleanSupplier stop) {
+    if (!findAccepted(stop)) return null;
+    PathNode<State, Symbol> node = queue.remove();
+
+    advance(node);
+    return node.encodedString(encoder);
   }
 
   /**
@@ -54,13 +87,25 @@ public class AutomataIterator<State, Symbol> implements Iterator<List<Symbol>> {
    * @return true if an accepted string is found, false otherwise
    */
   private boolean findAccepted() {
+    return findAccepted(() -> false);
+  }
+
+  /**
+   * Find the next accepted string by the automaton, unless the stop condition holds first.
+   * @param stop a condition checked before each expansion
+   * @return true if an accepted string is found, false otherwise
+   */
+  private boolean findAccepted(BooleanSupplier stop) {
     while (!queue.isEmpty()) {
       if (automaton.isFinal(queue.peek().state)) {
         return true;
       }
+      if (stop.getAsBoolean()) {
+        return false;
+      }
 
-      StateDescriptor<State, Symbol> state = queue.remove();
-      advance(state);
+      PathNode<State, Symbol> node = queue.remove();
+      advance(node);
     }
 
     return false;
@@ -68,41 +113,36 @@ public class AutomataIterator<State, Symbol> implements Iterator<List<Symbol>> {
 
   /**
    * Advance the automaton to the next string by enqueuing all possible transitions from the current state.
-   * @param state the current state
+   * The new nodes share the path of the current one, and the states on that path are marked in a bitset, so
+   * an expansion costs the out-degree of the state plus the distance in the tree from the previous expansion.
+   * Targets that can't reach a final state within the limit are not enqueued.
+   * @param node the current node
    */
-  private void advance(StateDescriptor<State, Symbol> state) {
-    if (state.path.size() == limit) return;
+  private void advance(PathNode<State, Symbol> node) {
+    if (node.depth == limit) return;
 
-    for (var transition : automaton.outgoingTransitions(state.state)) {
-      if (transition.value().equals(state.state) || state.pathContainsState(transition.value())) {
-        continue; // Avoid loops and cycles
+    marks.moveTo(node);
+    automaton.graph.forEachOutgoing(node.state, edge -> {
+      State target = edge.getTarget();
+      if (marks.contains(target)) {
+        return; // Avoid loops and cycles
       }
-      
-      List<Pair<State, Symbol>> newPath = new LinkedList<>(state.path);
-      newPath.add(new Pair<>(state.state, transition.key()));
-      queue.add(new StateDescriptor<>(newPath, transition.value()));
-    }
+      if (!reachesFinal(target, node.depth + 1)) {
+        return; // No accepted string goes through this branch
+      }
+
+      queue.add(new PathNode<>(node, edge.getSymbol(), target, marks.id(target)));
+    });
   }
 
   /**
-   * A record to hold the current state and the path that led to it.
-   * @param path the path that led to the current state
-   * @param state the state
-   * @param <State> the type of the state
-   * @param <Symbol> the type of the symbols in the automaton
+   * Return whether a final state may be reached from the state without exceeding the limit
+   * @param state the state of a node
+   * @param depth the depth of the node
+   * @return false if every path from the state to a final state is too long
    */
-  public record StateDescriptor<State, Symbol> (List<Pair<State, Symbol>> path, State state) {
-    StateDescriptor(State state) {
-      this(new LinkedList<>(), state);
-    }
-    
-    List<Symbol> string() {
-      return path.stream().map(Pair::value).toList();
-    }
-    
-    boolean pathContainsState(State state) {
-      return path.stream().anyMatch(pair -> pair.key().equals(state));
-    }
+  private boolean reachesFinal(State state, int depth) {
+    Integer distance = distances.get(state);
+    return distance != null && depth + distance <= limit;
   }
 }
-
@@ -4,6 +4,7 @@ import lkh.utils.MarkableSet;
 import lkh.utils.Pair;
 
 import java.util.*;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 public class AutomataOperations {
@@ -18,36 +19,28 @@ public class AutomataOperations {
    */
   public static <State, Symbol> GraphDeterministicAutomaton<Integer, Symbol> determinize(GraphNonDeterministicAutomaton<State, Symbol> automaton) {
     GraphDeterministicAutomaton<Integer, Symbol> result = new GraphDeterministicAutomaton<>();
-    Set<Set<State>> unvisitedStates = new HashSet<>();
-    Map<Set<State>, Integer> indexMap = new HashMap<>();
-    Set<State> s, m;
-    int lastIndex = 0;
+    SubsetConstruction<State, Symbol> subsets = new SubsetConstruction<>(automaton, automaton.alphabet);
+    List<Symbol> symbols = subsets.getSymbols();
+    SearchFrontier<SubsetConstruction.StateSet> frontier = new SearchFrontier<>();
+    SubsetConstruction.StateSet s, m;
 
-    s = automaton.lambdaClosure(automaton.initialState);
-    indexMap.put(s, lastIndex++);
-    result.setInitialState(0);
-    unvisitedStates.add(s);
+    result.setInitialState(frontier.discover(subsets.closure(automaton.initialState)));
 
-    while (!unvisitedStates.isEmpty()) {
-      s = unvisitedStates.stream().findAny().get();
-      unvisitedStates.remove(s);
+    while (!frontier.isEmpty()) {
+      s = frontier.next();
+      int index = frontier.id(s);
 
-      if (automaton.finalStates.stream().anyMatch(s::contains))
-        result.addFinalState(indexMap.get(s));
+      if (subsets.isFinal(s))
+        result.addFinalState(index);
 
-      for (Symbol symbol : automaton.alphabet) {
-        m = automaton.lambdaClosure(automaton.move(s, symbol));
+      for (int symbol = 0; symbol < symbols.size(); symbol++) {
+        m = subsets.successor(s, symbol);
         // comment the following for complete automaton
-        if (m.isEmpty()) {
+        if (m == null) {
           continue;
         }
 
-        if (!indexMap.containsKey(m)) {
-          unvisitedStates.add(m);
-          indexMap.put(m, lastIndex++);
-        }
-
-        result.addTransition(indexMap.get(s), indexMap.get(m), symbol);
+        result.addTransition(index, frontier.discover(m), symbols.get(symbol));
       }
     }
 
@@ -161,44 +154,33 @@ public class AutomataOperations {
   public static <A, B, Symbol> GraphDeterministicAutomaton<Integer, Symbol>
   intersection(GraphNonDeterministicAutomaton<A, Symbol> automaton1, GraphNonDeterministicAutomaton<B, Symbol> automaton2) {
     GraphDeterministicAutomaton<Integer, Symbol> result = new GraphDeterministicAutomaton<>();
-    Set<Pair<Set<A>, Set<B>>> unvisitedStates = new HashSet<>();
-    Map<Pair<Set<A>, Set<B>>, Integer> indexMap = new HashMap<>();
-    int lastIndex = 0;
+    SubsetConstruction<A, Symbol> subsets1 = new SubsetConstruction<>(automaton1, automaton1.alphabet);
+    SubsetConstruction<B, Symbol> subsets2 = new SubsetConstruction<>(automaton2, subsets1.getSymbols());
+    List<Symbol> symbols = subsets1.getSymbols();
+    SearchFrontier<Pair<SubsetConstruction.StateSet, SubsetConstruction.StateSet>> frontier = new SearchFrontier<>();
 
     // Initial state: lambda-closure of each initial state
-    Set<A> initS1 = automaton1.lambdaClosure(automaton1.initialState);
-    Set<B> initS2 = automaton2.lambdaClosure(automaton2.initialState);
-    Pair<Set<A>, Set<B>> initial = new Pair<>(initS1, initS2);
-
-    indexMap.put(initial, lastIndex++);
-    unvisitedStates.add(initial);
-    result.setInitialState(indexMap.get(initial));
+    result.setInitialState(frontier.discover(
+        new Pair<>(subsets1.closure(automaton1.initialState), subsets2.closure(automaton2.initialState))
+    ));
 
     // Subset construction on the product: each (S1, S2) pair is already lambda-closed,
     // so a single symbol step produces exactly one successor pair — giving a DFA.
-    while (!unvisitedStates.isEmpty()) {
-      Pair<Set<A>, Set<B>> pair = unvisitedStates.stream().findAny().get();
-      unvisitedStates.remove(pair);
+    while (!frontier.isEmpty()) {
+      Pair<SubsetConstruction.StateSet, SubsetConstruction.StateSet> pair = frontier.next();
+      int index = frontier.id(pair);
 
-      if (pair.key().stream().anyMatch(automaton1::isFinal) &&
-          pair.value().stream().anyMatch(automaton2::isFinal)) {
-        result.addFinalState(indexMap.get(pair));
+      if (subsets1.isFinal(pair.key()) && subsets2.isFinal(pair.value())) {
+        result.addFinalState(index);
       }
 
-      for (Symbol symbol : automaton1.alphabet) {
-        Set<A> next1 = automaton1.lambdaClosure(automaton1.move(pair.key(), symbol));
-        Set<B> next2 = automaton2.lambdaClosure(automaton2.move(pair.value(), symbol));
-
-        if (next1.isEmpty() || next2.isEmpty()) continue;
+      for (int symbol = 0; symbol < symbols.size(); symbol++) {
+        SubsetConstruction.StateSet next1 = subsets1.successor(pair.key(), symbol);
+        if (next1 == null) continue;
+        SubsetConstruction.StateSet next2 = subsets2.successor(pair.value(), symbol);
+        if (next2 == null) continue;
 
-        Pair<Set<A>, Set<B>> next = new Pair<>(next1, next2);
-
-        if (!indexMap.containsKey(next)) {
-          indexMap.put(next, lastIndex++);
-          unvisitedStates.add(next);
-        }
-
-        result.addTransition(indexMap.get(pair), indexMap.get(next), symbol);
+        result.addTransition(index, frontier.discover(new Pair<>(next1, next2)), symbols.get(symbol));
       }
     }
 
@@ -214,23 +196,18 @@ public class AutomataOperations {
   public static <A, B, Symbol> GraphDeterministicAutomaton<Integer, Symbol>
   intersection(GraphDeterministicAutomaton<A, Symbol> automaton1, GraphDeterministicAutomaton<B, Symbol> automaton2) {
     GraphDeterministicAutomaton<Integer, Symbol> result = new GraphDeterministicAutomaton<>();
-    Set<Pair<A, B>> unvisitedStates = new HashSet<>();
-    Map<Pair<A, B>, Integer> indexMap = new HashMap<>();
-    int lastIndex = 0;
+    SearchFrontier<Pair<A, B>> frontier = new SearchFrontier<>();
 
     // Initial state
-    Pair<A, B> initial = new Pair<>(automaton1.initialState, automaton2.initialState);
-    indexMap.put(initial, lastIndex++);
-    unvisitedStates.add(initial);
-    result.setInitialState(indexMap.get(initial));
+    result.setInitialState(frontier.discover(new Pair<>(automaton1.initialState, automaton2.initialState)));
 
     // Transition map
-    while(!unvisitedStates.isEmpty()) {
-      Pair<A, B> pair = unvisitedStates.stream().findAny().get();
-      unvisitedStates.remove(pair);
+    while(!frontier.isEmpty()) {
+      Pair<A, B> pair = frontier.next();
+      int index = frontier.id(pair);
 
       if (automaton1.isFinal(pair.key()) && automaton2.isFinal(pair.value())) {
-        result.addFinalState(indexMap.get(pair));
+        result.addFinalState(index);
       }
 
       for (Symbol symbol : automaton1.getAlphabet()) {
@@ -239,20 +216,26 @@ public class AutomataOperations {
 
         if (s1.isEmpty() || s2.isEmpty()) continue;
 
-        Pair<A, B> next = new Pair<>(s1.get(), s2.get());
-
-        if (!indexMap.containsKey(next)) {
-          unvisitedStates.add(next);
-          indexMap.put(next, lastIndex++);
-        }
-
-        result.addTransition(indexMap.get(pair), indexMap.get(next), symbol);
+        result.addTransition(index, frontier.discover(new Pair<>(s1.get(), s2.get())), symbol);
       }
     }
 
     return result;
   }
 
+  /**
+   * Check if the intersection of the languages of two DFAs is empty, without building the intersection.
+   * The product is explored on demand and the search stops at the first pair of final states.
+   * @param automaton1 a DFA
+   * @param automaton2 a DFA
+   * @return true if no string is accepted by both automata
+   * @see ProductAutomaton
+   */
+  public static <A, B, Symbol> boolean
+  intersectionIsEmpty(GraphDeterministicAutomaton<A, Symbol> automaton1, GraphDeterministicAutomaton<B, Symbol> automaton2) {
+    return new ProductAutomaton<>(automaton1, automaton2).isEmpty();
+  }
+
   /**
    * Collection of DeterministicAutomaton intersection.
    * Accepts any {@link Collection} (List, Set, …) of DFAs.
@@ -263,6 +246,20 @@ public class AutomataOperations {
    */
   public static <State, Symbol> GraphDeterministicAutomaton<Integer, Symbol>
   intersection(Collection<GraphDeterministicAutomaton<State, Symbol>> automata) {
+    return intersection(automata, false);
+  }
+
+  /**
+   * Collection of DeterministicAutomaton intersection, optionally trimming each partial product
+   * so that dead states are not carried into the next intersection.
+   * @param automata a non-null, non-empty collection of DFAs
+   * @param trim whether to trim the result of each intersection step
+   * @return a DFA accepting the intersection of the languages of all DFA's
+   * @param <State> the type of the states
+   * @param <Symbol> the type of the symbols
+   */
+  public static <State, Symbol> GraphDeterministicAutomaton<Integer, Symbol>
+  intersection(Collection<GraphDeterministicAutomaton<State, Symbol>> automata, boolean trim) {
     if (automata == null) throw new NullPointerException("null automata collection");
     if (automata.isEmpty()) throw new IllegalArgumentException("empty automata collection");
 
@@ -271,11 +268,67 @@ public class AutomataOperations {
 
     while (!queue.isEmpty()) {
       result = intersection(result, queue.remove());
+      if (trim) result = trim(result).automaton();
     }
 
     return result;
   }
 
+  /**
+   * Remove the states of a DFA that are unreachable from the initial state or can't reach a final state,
+   * together with their transitions. The initial state is always kept, so an automaton with an empty
+   * language is trimmed to its initial state alone.
+   * Runs in time linear in the number of states and transitions.
+   * @param automaton a DFA
+   * @return the trimmed DFA, which is the input itself if nothing was removed, and the removed counts
+   * @param <State> the type of the states
+   * @param <Symbol> the type of the symbols
+   */
+  public static <State, Symbol> TrimResult<State, Symbol> trim(GraphDeterministicAutomaton<State, Symbol> automaton) {
+    Pair<Integer, Integer> size = automaton.getSize();
+    State initial = automaton.initialState;
+
+    // Forward search from the initial state, recording the reversed transitions
+    SearchFrontier<State> reachable = new SearchFrontier<>();
+    Map<State, List<State>> predecessors = new HashMap<>();
+    if (automaton.containsState(initial)) reachable.discover(initial);
+    while (!reachable.isEmpty()) {
+      State source = reachable.next();
+      automaton.graph.forEachOutgoing(source, edge -> {
+        predecessors.computeIfAbsent(edge.getTarget(), k -> new ArrayList<>()).add(source);
+        reachable.discover(edge.getTarget());
+      });
+    }
+
+    // Backward search from the reachable final states
+    SearchFrontier<State> useful = new SearchFrontier<>();
+    for (State state : automaton.getFinalStates()) {
+      if (reachable.isDiscovered(state)) useful.discover(state);
+    }
+    while (!useful.isEmpty()) {
+      predecessors.getOrDefault(useful.next(), List.of()).forEach(useful::discover);
+    }
+
+    GraphDeterministicAutomaton<State, Symbol> result = new GraphDeterministicAutomaton<>();
+    result.alphabet.addAll(automaton.alphabet);
+    result.setInitialState(initial);
+
+    for (State state : automaton.getStates()) {
+      if (!useful.isDiscovered(state)) continue;
+
+      result.addState(state);
+      if (automaton.isFinal(state)) result.addFinalState(state);
+      automaton.graph.forEachOutgoing(state, edge -> useful.isDiscovered(edge.getTarget()),
+          edge -> result.addTransition(state, edge.getTarget(), edge.getSymbol()));
+    }
+
+    Pair<Integer, Integer> trimmedSize = result.getSize();
+    int removedStates = size.key() - trimmedSize.key();
+    int removedTransitions = size.value() - trimmedSize.value();
+    if (removedStates == 0 && removedTransitions == 0) return new TrimResult<>(automaton, 0, 0);
+    return new TrimResult<>(result, removedStates, removedTransitions);
+  }
+
   /**
    * NonDeterministicAutomaton to DeterministicAutomaton passage.
    * It checks that the input has a deterministic structure.
@@ -357,4 +410,87 @@ public class AutomataOperations {
 
     return result;
   }
+
+  /**
+   * Compute, for each state, the length of the shortest path from it to a final state.
+   * States that can't reach a final state are not in the result.
+   * @param automaton a non-null automaton
+   * @return a map from each co-reachable state to its distance to the final states
+   * @param <State> the type of the states
+   * @param <Symbol> the type of the symbols
+   */
+  public static <State, Symbol> Map<State, Integer> distancesToFinal(GraphAutomaton<State, Symbol> automaton) {
+    Map<State, List<State>> predecessors = new HashMap<>();
+    for (State source : automaton.getStates()) {
+      automaton.graph.forEachOutgoing(source, edge ->
+          predecessors.computeIfAbsent(edge.getTarget(), k -> new ArrayList<>()).add(source)
+      );
+    }
+
+    Map<State, Integer> distances = new HashMap<>();
+    Queue<State> queue = new ArrayDeque<>();
+    for (State state : automaton.getFinalStates()) {
+      if (automaton.containsState(state) && distances.putIfAbsent(state, 0) == null) {
+        queue.add(state);
+      }
+    }
+
+    // Breadth-first search over the reversed transitions
+    while (!queue.isEmpty()) {
+      State state = queue.remove();
+      int distance = distances.get(state) + 1;
+
+      for (State predecessor : predecessors.getOrDefault(state, List.of())) {
+        if (distances.putIfAbsent(predecessor, distance) == null) {
+          queue.add(predecessor);
+        }
+      }
+    }
+
+    return distances;
+  }
+
+  /**
+   * Compute, for each state, the cost of the cheapest path from it to a final state,
+   * where the cost of a path is the sum of the costs of its symbols.
+   * States that can't reach a final state are not in the result.
+   * @param automaton a non-null automaton
+   * @param cost a function giving a non-negative cost to each symbol
+   * @return a map from each co-reachable state to its cost to the final states
+   * @param <State> the type of the states
+   * @param <Symbol> the type of the symbols
+   * @throws IllegalArgumentException if some symbol has a negative or NaN cost
+   */
+  public static <State, Symbol> Map<State, Double> costsToFinal(GraphAutomaton<State, Symbol> automaton,
+                                                                ToDoubleFunction<? super Symbol> cost) {
+    Map<State, List<Pair<State, Double>>> predecessors = new HashMap<>();
+    for (State source : automaton.getStates()) {
+      automaton.graph.forEachOutgoing(source, edge -> {
+        double edgeCost = cost.applyAsDouble(edge.getSymbol());
+        if (!(edgeCost >= 0)) throw new IllegalArgumentException("symbol costs must be non-negative");
+
+        predecessors.computeIfAbsent(edge.getTarget(), k -> new ArrayList<>()).add(new Pair<>(source, edgeCost));
+      });
+    }
+
+    Map<State, Double> costs = new HashMap<>();
+    PriorityQueue<Pair<State, Double>> queue = new PriorityQueue<>(Comparator.comparingDouble(Pair::value));
+    for (State state : automaton.getFinalStates()) {
+      if (automaton.containsState(state)) queue.add(new Pair<>(state, 0.0));
+    }
+
+    // Dijkstra over the reversed transitions
+    while (!queue.isEmpty()) {
+      Pair<State, Double> entry = queue.remove();
+      if (costs.putIfAbsent(entry.key(), entry.value()) != null) continue;
+
+      for (Pair<State, Double> predecessor : predecessors.getOrDefault(entry.key(), List.of())) {
+        if (!costs.containsKey(predecessor.key())) {
+          queue.add(new Pair<>(predecessor.key(), entry.value() + predecessor.value()));
+        }
+      }
+    }
+
+    return costs;
+  }
 }
@@ -0,0 +1,125 @@
+package lkh.automata.impl;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Iterator over the strings accepted by an automaton in non-decreasing cost, with a length limit.
+ * The cost of a string is the sum of the costs of its symbols; by default every symbol costs 1, so strings
+ * come out in increasing length.
+ * As in AutomataIterator, only strings whose path doesn't repeat states are returned.
+ * The search is an A* over the path tree, ordered by the cost of the path plus the cheapest cost from its
+ * last state to a final state. That cost is a lower bound which is exact unless the length limit or the
+ * repeated states get in the way, so usually only the states along the cheapest string are expanded before
+ * it is found. Paths that can't reach a final state within the length limit are never enqueued.
+ * Taking the first k strings gives the k cheapest ones.
+ *
+ * @param <State> the type of the states
+ * @param <Symbol> the type of the symbols
+ */
+public class BestFirstIterator<State, Symbol> implements Iterator<List<Symbol>> {
+  private final GraphAutomaton<State, Symbol> automaton;
+  private final int limit;
+  private final ToDoubleFunction<? super Symbol> cost;
+  private final Map<State, Integer> distances;
+  private final Map<State, Double> costs;
+  private final PriorityQueue<Entry<State, Symbol>> queue = new PriorityQueue<>();
+  private final PathMarks<State, Symbol> marks = new PathMarks<>();
+  private long sequence = 0;
+
+  public BestFirstIterator(GraphAutomaton<State, Symbol> automaton, int limit) {
+    this(automaton, limit, symbol -> 1);
+  }
+
+  /**
+   * @param automaton the automaton whose strings are enumerated
+   * @param limit the maximum length of the strings
+   * @param cost a function giving a non-negative cost to each symbol
+   * @throws IllegalArgumentException if some symbol of the automaton has a negative or NaN cost
+   */
+  public BestFirstIterator(GraphAutomaton<State, Symbol> automaton, int limit, ToDoubleFunction<? super Symbol> cost) {
+    this.automaton = automaton;
+    this.limit = limit;
+    this.cost = cost;
+    this.distances = AutomataOperations.distancesToFinal(automaton);
+    this.costs = AutomataOperations.costsToFinal(automaton, cost);
+
+    State initialState = automaton.getInitialState();
+    enqueue(new PathNode<>(initialState, marks.id(initialState)), 0);
+  }
+
+  /**
+   * Check if there is another string accepted by the automaton with a length of at most the limit.
+   * @return true if there is another accepted string, false otherwise
+   */
+  @Override
+  public boolean hasNext() {
+    return findAccepted();
+  }
+
+  /**
+   * Get the next cheapest string accepted by the automaton with a length of at most the limit.
+   * @return the next accepted string, null if non exists
+   */
+  @Override
+  public List<Symbol> next() {
+    if (!findAccepted()) return null;
+
+    Entry<State, Symbol> entry = queue.remove();
+    advance(entry);
+    return entry.node.string();
+  }
+
+  /**
+   * Expand nodes until the node with the lowest estimate is in a final state.
+   * @return true if an accepted string is found, false otherwise
+   */
+  private boolean findAccepted() {
+    while (!queue.isEmpty()) {
+      if (automaton.isFinal(queue.peek().node.state)) {
+        return true;
+      }
+
+      advance(queue.remove());
+    }
+
+    return false;
+  }
+
+  private void advance(Entry<State, Symbol> entry) {
+    PathNode<State, Symbol> node = entry.node;
+    if (node.depth == limit) return;
+
+    marks.moveTo(node);
+    automaton.graph.forEachOutgoing(node.state, edge -> {
+      State target = edge.getTarget();
+      if (marks.contains(target)) {
+        return; // Avoid loops and cycles
+      }
+
+      enqueue(new PathNode<>(node, edge.getSymbol(), target, marks.id(target)), entry.cost + cost.applyAsDouble(edge.getSymbol()));
+    });
+  }
+
+  private void enqueue(PathNode<State, Symbol> node, double pathCost) {
+    Integer distance = distances.get(node.state);
+    if (distance == null || node.depth + distance > limit) return;
+
+    queue.add(new Entry<>(node, pathCost, pathCost + costs.get(node.state), sequence++));
+  }
+
+  /**
+   * A node in the queue with the cost of its path and its estimated total cost.
+   * Entries are ordered by estimate, then deeper first so that the current best path is followed to its end,
+   * then by insertion order.
+   */
+  private record Entry<State, Symbol>(PathNode<State, Symbol> node, double cost, double estimate, long sequence)
+      implements Comparable<Entry<State, Symbol>> {
+    @Override
+    public int compareTo(Entry<State, Symbol> other) {
+      if (estimate != other.estimate) return Double.compare(estimate, other.estimate);
+      if (node.depth != other.node.depth) return Integer.compare(other.node.depth, node.depth);
+      return Long.compare(sequence, other.sequence);
+    }
+  }
+}
@@ -8,6 +8,7 @@ import logger.Logger;
 import logger.LoggerContext;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NonNull;
 
 import java.util.*;
 
@@ -44,6 +45,16 @@ public abstract class GraphAutomaton<State, Symbol> implements Automaton<State,
       this.graph = new HashMapDirectedGraph<>(logger);
   }
 
+  /**
+   * Create an automaton backed by the given graph, for example an IntDirectedGraph for Integer states.
+   * @param graph an empty directed graph
+   */
+  protected GraphAutomaton(@NonNull DirectedGraph<State, AutomatonEdge<State, Symbol>> graph) {
+    if (!graph.getVertices().isEmpty()) throw new IllegalArgumentException("graph must be empty");
+
+    this.graph = graph;
+  }
+
   @Override
   public void setInitialState(State initialState) {
     graph.addVertex(initialState);
@@ -101,9 +112,7 @@ public abstract class GraphAutomaton<State, Symbol> implements Automaton<State,
   public Set<Pair<Symbol, State>> outgoingTransitions(State state) {
     Set<Pair<Symbol, State>> transitions = new HashSet<>();
 
-    for (var edge : graph.getOutgoingEdges(state)) {
-      transitions.add(new Pair<>(edge.getSymbol(), edge.getTarget()));
-    }
+    graph.forEachOutgoing(state, edge -> transitions.add(new Pair<>(edge.getSymbol(), edge.getTarget())));
 
     return transitions;
   }
@@ -1,6 +1,7 @@
 package lkh.automata.impl;
 
 import lkh.automata.DeterministicAutomaton;
+import lkh.graph.DirectedGraph;
 import lkh.utils.Pair;
 import logger.Logger;
 
@@ -24,6 +25,13 @@ public class GraphDeterministicAutomaton<State, Symbol>
     super(logger);
   }
 
+  /**
+   * @param graph an empty directed graph to store the transitions
+   */
+  public GraphDeterministicAutomaton(DirectedGraph<State, AutomatonEdge<State, Symbol>> graph) {
+    super(graph);
+  }
+
   public static <Action> GraphDeterministicAutomaton<Integer, Action> empty() {
     GraphDeterministicAutomaton<Integer, Action> empty = new GraphDeterministicAutomaton<>();
     empty.setInitialState(0);
@@ -57,10 +65,8 @@ public class GraphDeterministicAutomaton<State, Symbol>
   public Optional<State> delta(State source, Symbol symbol) {
     if (!graph.containsVertex(source)) return Optional.empty();
 
-    return graph.getOutgoingEdges(source).stream()
-      .filter(edge -> (edge.getSymbol().equals(symbol)))
-      .map(edge -> edge.getTarget())
-      .findFirst();
+    return graph.findOutgoing(source, edge -> edge.getSymbol().equals(symbol))
+      .map(edge -> edge.getTarget());
   }
 
   @Override
@@ -100,23 +106,18 @@ public class GraphDeterministicAutomaton<State, Symbol>
 
   @Override
   public boolean isEmpty() {
-    Set<State> visited = new HashSet<>();
-    Queue<State> unvisited = new LinkedList<>();
-    unvisited.add(initialState);
+    if (!graph.containsVertex(initialState)) return true;
+
+    SearchFrontier<State> frontier = new SearchFrontier<>();
+    frontier.discover(initialState);
 
-    while(!unvisited.isEmpty()) {
-      State currentState = unvisited.remove();
-      visited.add(currentState);
+    while(!frontier.isEmpty()) {
+      State currentState = frontier.next();
 
       if(isFinal(currentState))
         return false;
 
-      for(Symbol symbol : getAlphabet()) {
-        delta(currentState, symbol).ifPresent(target -> {
-          if (!visited.contains(target))
-            unvisited.add(target);
-        });
-      }
+      graph.forEachOutgoing(currentState, edge -> frontier.discover(edge.getTarget()));
     }
 
     return true;
@@ -1,6 +1,10 @@
 package lkh.automata.impl;
 
 import lkh.automata.NonDeterministicAutomaton;
+import lkh.graph.DirectedGraph;
+import lkh.graph.DirectedGraphOperations;
+import lkh.graph.HashMapDirectedGraph;
+import lkh.graph.edge.DefaultEdge;
 import lkh.utils.Pair;
 import logger.Logger;
 
@@ -15,6 +19,8 @@ import java.util.*;
 public class GraphNonDeterministicAutomaton<State, Symbol>
     extends GraphAutomaton<State, Symbol>
     implements NonDeterministicAutomaton<State, Symbol> {
+  // Lambda closure of each state, null when a transition was added since it was computed
+  private Map<State, Set<State>> closures;
 
   public GraphNonDeterministicAutomaton() {
     super();
@@ -24,16 +30,25 @@ public class GraphNonDeterministicAutomaton<State, Symbol>
     super(logger);
   }
 
+  /**
+   * @param graph an empty directed graph to store the transitions
+   */
+  public GraphNonDeterministicAutomaton(DirectedGraph<State, AutomatonEdge<State, Symbol>> graph) {
+    super(graph);
+  }
+
   @Override
   public void addTransition(State source, State target, Symbol symbol) {
     if (symbol == null) throw new NullPointerException("symbol can't be null");
 
     alphabet.add(symbol);
+    closures = null;
     super.addTransition(source, target, symbol);
   }
 
   @Override
   public void addEmptyTransition(State source, State target) {
+    closures = null;
     super.addTransition(source, target, null);
   }
 
@@ -41,10 +56,9 @@ public class GraphNonDeterministicAutomaton<State, Symbol>
   public Set<State> delta(State source, Symbol symbol) {
     if (!containsState(source)) throw new IllegalArgumentException("source state not in states set");
 
-    return new HashSet<>(graph.getOutgoingNeighbors(
-        source,
-        edge -> edge.hasSymbol(symbol)
-    ));
+    Set<State> targets = new HashSet<>();
+    graph.forEachOutgoing(source, edge -> edge.hasSymbol(symbol), edge -> targets.add(edge.getTarget()));
+    return targets;
   }
 
   @Override
@@ -63,19 +77,79 @@ public class GraphNonDeterministicAutomaton<State, Symbol>
     return result;
   }
 
+  /**
+   * Get the lambda closure of a state.
+   * The closures of all the states are computed together the first time and kept until a transition is added.
+   * @param state the source state
+   * @return an unmodifiable set with the states reachable through empty transitions
+   */
   @Override
   public Set<State> lambdaClosure(State state) {
-    Set<State> result = new HashSet<>(Collections.singleton(state));  // result = { state }
-    Set<State> newStates = new HashSet<>();
+    if (!containsState(state)) throw new IllegalArgumentException("source state not in states set");
 
-    boolean changed = true;
+    if (closures == null) closures = computeClosures();
 
-    while (changed) {
-      result.forEach(s -> newStates.addAll(emptyDelta(s)));
-      changed = result.addAll(newStates);
-      newStates.clear();
+    // States added after the computation have no transitions
+    Set<State> closure = closures.get(state);
+    return closure != null ? closure : Set.of(state);
+  }
+
+  /**
+   * Compute the lambda closure of every state over the condensation of the graph of empty transitions.
+   * All the states of a strongly connected component share the same closure, which is the component plus the
+   * closures of the components it has empty transitions to.
+   * @return a map from each state to its unmodifiable closure
+   */
+  private Map<State, Set<State>> computeClosures() {
+    DirectedGraph<State, DefaultEdge<State>> emptyGraph = new HashMapDirectedGraph<>();
+    for (State state : getStates()) {
+      emptyGraph.addVertex(state);
+      graph.forEachOutgoing(state, edge -> edge.getSymbol() == null,
+          edge -> emptyGraph.addEdge(new DefaultEdge<>(state, edge.getTarget())));
+    }
+
+    Map<State, Set<State>> componentOf = new HashMap<>();
+    for (Set<State> component : DirectedGraphOperations.getSCCs(emptyGraph)) {
+      component.forEach(state -> componentOf.put(state, component));
+    }
+
+    // Post-order over the condensation, which is acyclic
+    Map<Set<State>, Set<State>> componentClosures = new IdentityHashMap<>();
+    Deque<Set<State>> stack = new ArrayDeque<>();
+    for (Set<State> root : componentOf.values()) {
+      stack.push(root);
+
+      while (!stack.isEmpty()) {
+        Set<State> component = stack.peek();
+        if (componentClosures.containsKey(component)) {
+          stack.pop();
+          continue;
+        }
+
+        Set<Set<State>> successors = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (State state : component) {
+          emptyGraph.forEachOutgoing(state, edge -> successors.add(componentOf.get(edge.getTarget())));
+        }
+        successors.remove(component);
+
+        boolean ready = true;
+        for (Set<State> successor : successors) {
+          if (!componentClosures.containsKey(successor)) {
+            stack.push(successor);
+            ready = false;
+          }
+        }
+        if (!ready) continue;
+
+        Set<State> closure = new HashSet<>(component);
+        successors.forEach(successor -> closure.addAll(componentClosures.get(successor)));
+        componentClosures.put(component, Collections.unmodifiableSet(closure));
+        stack.pop();
+      }
     }
 
+    Map<State, Set<State>> result = new HashMap<>();
+    componentOf.forEach((state, component) -> result.put(state, componentClosures.get(component)));
     return result;
   }
 
@@ -97,8 +171,7 @@ public class GraphNonDeterministicAutomaton<State, Symbol>
       if (currentStates.isEmpty()) return false;
     }
 
-    currentStates.retainAll(finalStates);
-    return !currentStates.isEmpty();
+    return currentStates.stream().anyMatch(finalStates::contains);
   }
 
   @Override
@@ -0,0 +1,66 @@
+package lkh.automata.impl;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The states on the path of one node of a search over the paths of an automaton.
+ * States are numbered densely as the search meets them, and the states of the path of the current node are
+ * marked in a bitset. Moving to another node only unmarks and marks the nodes between them and their
+ * common ancestor, so a search that expands nodes close to each other in the tree pays little for it.
+ * @param <State> the type of the states
+ * @param <Symbol> the type of the symbols in the automaton
+ */
+final class PathMarks<State, Symbol> {
+  private final Map<State, Integer> ids = new HashMap<>();
+  private final BitSet marks = new BitSet();
+  private PathNode<State, Symbol> current;
+
+  /**
+   * Get the id of a state, numbering it if it is new
+   * @param state a state of the automaton
+   * @return the id of the state
+   */
+  int id(State state) {
+    return ids.computeIfAbsent(state, k -> ids.size());
+  }
+
+  /**
+   * Mark the states on the path of a node, in place of the ones of the current node
+   * @param node a node of the search, made with ids of this object
+   */
+  void moveTo(PathNode<State, Symbol> node) {
+    if (node == current) return;
+
+    PathNode<State, Symbol> ancestor = commonAncestor(current, node);
+    for (PathNode<State, Symbol> n = current; n != ancestor; n = n.parent) {
+      marks.clear(n.id);
+    }
+    for (PathNode<State, Symbol> n = node; n != ancestor; n = n.parent) {
+      marks.set(n.id);
+    }
+    current = node;
+  }
+
+  /**
+   * Return whether the state is in the path of the current node, both ends included
+   * @param state the state to look for
+   * @return true if some node of the path has the state
+   */
+  boolean contains(State state) {
+    Integer id = ids.get(state);
+    return id != null && marks.get(id);
+  }
+
+  private static <State, Symbol> PathNode<State, Symbol> commonAncestor(PathNode<State, Symbol> a, PathNode<State, Symbol> b) {
+    if (a == null) return null;
+    while (a.depth > b.depth) a = a.parent;
+    while (b.depth > a.depth) b = b.parent;
+    while (a != b) {
+      a = a.parent;
+      b = b.parent;
+    }
+    return a;
+  }
+}
@@ -0,0 +1,63 @@
+package lkh.automata.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * A node of a search tree over the paths of an automaton: a state and the path that led to it.
+ * The path is stored as a pointer to the parent node, so paths with a common prefix share it.
+ * Each node also keeps the dense id of its state, which PathMarks uses to mark the states on its path.
+ * @param <State> the type of the state
+ * @param <Symbol> the type of the symbols in the automaton
+ */
+final class PathNode<State, Symbol> {
+  final PathNode<State, Symbol> parent;
+  final Symbol symbol;
+  final State state;
+  final int depth;
+  final int id;
+
+  PathNode(State state, int id) {
+    this.parent = null;
+    this.symbol = null;
+    this.state = state;
+    this.depth = 0;
+    this.id = id;
+  }
+
+  PathNode(PathNode<State, Symbol> parent, Symbol symbol, State state, int id) {
+    this.parent = parent;
+    this.symbol = symbol;
+    this.state = state;
+    this.depth = parent.depth + 1;
+    this.id = id;
+  }
+
+  /**
+   * Get the symbols of the path that led to the node
+   * @return an unmodifiable list with the symbols, from the root to the node
+   */
+  List<Symbol> string() {
+    @SuppressWarnings("unchecked")
+    Symbol[] symbols = (Symbol[]) new Object[depth];
+    for (PathNode<State, Symbol> node = this; node.parent != null; node = node.parent) {
+      symbols[node.depth - 1] = node.symbol;
+    }
+    return Collections.unmodifiableList(Arrays.asList(symbols));
+  }
+
+  /**
+   * Get the symbols of the path that led to the node, encoded as integers
+   * @param encoder a function giving the code of each symbol
+   * @return an array with the codes of the symbols, from the root to the node
+   */
+  int[] encodedString(ToIntFunction<? super Symbol> encoder) {
+    int[] codes = new int[depth];
+    for (PathNode<State, Symbol> node = this; node.parent != null; node = node.parent) {
+      codes[node.depth - 1] = encoder.applyAsInt(node.symbol);
+    }
+    return codes;
+  }
+}
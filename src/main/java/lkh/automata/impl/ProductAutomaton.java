@@ -0,0 +1,191 @@
+package lkh.automata.impl;
+
+import lkh.utils.LongHashSet;
+import lkh.utils.Pair;
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Lazily expanded product of two DFAs.
+ * The product is never built: the transitions of a pair of states are computed when they are asked for.
+ * A pair is final when both of its states are final, so the product accepts the intersection of the
+ * languages of the two automata.
+ * When both automata have integer states, the search for a final pair encodes the pairs as longs and keeps
+ * them in primitive arrays instead of allocating a Pair for each one.
+ * The size of the part of the product explored by the last search is kept, for logging.
+ *
+ * @param <A> the type of the states of the first DFA
+ * @param <B> the type of the states of the second DFA
+ * @param <Symbol> the type of the symbols
+ */
+public class ProductAutomaton<A, B, Symbol> {
+  private final GraphDeterministicAutomaton<A, Symbol> first;
+  private final GraphDeterministicAutomaton<B, Symbol> second;
+  private int exploredStates = 0;
+  private int exploredTransitions = 0;
+
+  public ProductAutomaton(@NonNull GraphDeterministicAutomaton<A, Symbol> first,
+                          @NonNull GraphDeterministicAutomaton<B, Symbol> second) {
+    this.first = first;
+    this.second = second;
+  }
+
+  public Pair<A, B> getInitialState() {
+    return new Pair<>(first.getInitialState(), second.getInitialState());
+  }
+
+  public boolean isFinal(Pair<A, B> state) {
+    return first.isFinal(state.key()) && second.isFinal(state.value());
+  }
+
+  /**
+   * Get the target of the transition from a pair of states by a symbol
+   * @param source the source pair
+   * @param symbol the symbol of the transition
+   * @return the target pair, or empty if either automaton has no such transition
+   */
+  public Optional<Pair<A, B>> delta(Pair<A, B> source, Symbol symbol) {
+    Optional<A> target1 = first.delta(source.key(), symbol);
+    if (target1.isEmpty()) return Optional.empty();
+
+    return second.delta(source.value(), symbol).map(target2 -> new Pair<>(target1.get(), target2));
+  }
+
+  /**
+   * Call the action with the symbol and target of each transition going out of a pair of states.
+   * @param source the source pair
+   * @param action the action to perform on each transition
+   */
+  public void forEachTransition(Pair<A, B> source, BiConsumer<? super Symbol, ? super Pair<A, B>> action) {
+    first.graph.forEachOutgoing(source.key(), edge ->
+        second.delta(source.value(), edge.getSymbol())
+            .ifPresent(target2 -> action.accept(edge.getSymbol(), new Pair<>(edge.getTarget(), target2)))
+    );
+  }
+
+  /**
+   * Get the size of the part of the product explored by the last call to isEmpty()
+   * @return the number of reached pairs and the number of transitions followed
+   */
+  public Pair<Integer, Integer> getExploredSize() {
+    return new Pair<>(exploredStates, exploredTransitions);
+  }
+
+  /**
+   * Check if the product accepts no string.
+   * The search stops at the first reachable final pair.
+   * @return true if no final pair is reachable from the initial pair
+   */
+  public boolean isEmpty() {
+    exploredStates = 0;
+    exploredTransitions = 0;
+    if (first.getInitialState() == null || second.getInitialState() == null) return true;
+
+    if (hasIntegerStates(first) && hasIntegerStates(second)) {
+      @SuppressWarnings("unchecked")
+      GraphDeterministicAutomaton<Integer, Symbol> first = (GraphDeterministicAutomaton<Integer, Symbol>) this.first;
+      @SuppressWarnings("unchecked")
+      GraphDeterministicAutomaton<Integer, Symbol> second = (GraphDeterministicAutomaton<Integer, Symbol>) this.second;
+      return isEmptyEncoded(first, second);
+    }
+
+    Pair<A, B> initial = getInitialState();
+    exploredStates = 1;
+    if (isFinal(initial)) return false;
+
+    Set<Pair<A, B>> visited = new HashSet<>();
+    Queue<Pair<A, B>> queue = new ArrayDeque<>();
+    visited.add(initial);
+    queue.add(initial);
+
+    while (!queue.isEmpty()) {
+      Pair<A, B> pair = queue.remove();
+
+      // findOutgoing stops at the first transition that reaches a final pair
+      boolean found = first.graph.findOutgoing(pair.key(), edge -> {
+        Optional<B> target2 = second.delta(pair.value(), edge.getSymbol());
+        if (target2.isEmpty()) return false;
+
+        exploredTransitions++;
+        Pair<A, B> next = new Pair<>(edge.getTarget(), target2.get());
+        if (!visited.add(next)) return false;
+        exploredStates++;
+        if (isFinal(next)) return true;
+
+        queue.add(next);
+        return false;
+      }).isPresent();
+      if (found) return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Breadth-first search for a final pair over pairs of integer states encoded as longs.
+   */
+  private boolean isEmptyEncoded(GraphDeterministicAutomaton<Integer, Symbol> first,
+                                 GraphDeterministicAutomaton<Integer, Symbol> second) {
+    exploredStates = 1;
+    if (first.isFinal(first.getInitialState()) && second.isFinal(second.getInitialState())) return false;
+
+    EncodedQueue queue = new EncodedQueue();
+    queue.offer(encode(first.getInitialState(), second.getInitialState()));
+
+    while (!queue.isEmpty()) {
+      long pair = queue.poll();
+      int state2 = (int) pair;
+
+      boolean found = first.graph.findOutgoing((int) (pair >>> 32), edge -> {
+        Optional<Integer> target2 = second.delta(state2, edge.getSymbol());
+        if (target2.isEmpty()) return false;
+
+        exploredTransitions++;
+        int target1 = edge.getTarget();
+        if (!queue.offer(encode(target1, target2.get()))) return false;
+        exploredStates++;
+        return first.isFinal(target1) && second.isFinal(target2.get());
+      }).isPresent();
+      if (found) return false;
+    }
+
+    return true;
+  }
+
+  private static boolean hasIntegerStates(GraphDeterministicAutomaton<?, ?> automaton) {
+    return automaton.getStates().stream().allMatch(Integer.class::isInstance);
+  }
+
+  private static long encode(int state1, int state2) {
+    return ((long) state1 << 32) | (state2 & 0xFFFFFFFFL);
+  }
+
+  /**
+   * FIFO queue of encoded pairs that enqueues each pair at most once.
+   * Every visited pair is enqueued once, so the queue is an array that only grows.
+   */
+  private static class EncodedQueue {
+    private final LongHashSet visited = new LongHashSet();
+    private long[] pairs = new long[16];
+    private int head = 0;
+    private int tail = 0;
+
+    boolean offer(long pair) {
+      if (!visited.add(pair)) return false;
+
+      if (tail == pairs.length) pairs = Arrays.copyOf(pairs, 2 * tail);
+      pairs[tail++] = pair;
+      return true;
+    }
+
+    long poll() {
+      return pairs[head++];
+    }
+
+    boolean isEmpty() {
+      return head == tail;
+    }
+  }
+}
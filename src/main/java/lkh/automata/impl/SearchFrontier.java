@@ -0,0 +1,113 @@
+package lkh.automata.impl;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Worklist for the explorations of the automata algorithms.
+ * Each state is numbered when it is first discovered and enqueued only then, so no state is expanded twice.
+ * States are taken in breadth-first or depth-first order, and a listener can observe the discoveries and
+ * expansions.
+ *
+ * @param <T> the type of the explored states
+ */
+public class SearchFrontier<T> {
+  public enum Order { BREADTH_FIRST, DEPTH_FIRST }
+
+  /**
+   * Observer of a search, for instrumentation.
+   * @param <T> the type of the explored states
+   */
+  public interface Listener<T> {
+    /**
+     * Called when a state is seen for the first time
+     * @param state the state
+     * @param id the number given to the state
+     */
+    default void discovered(T state, int id) {}
+
+    /**
+     * Called when a state is taken from the frontier to be expanded
+     * @param state the state
+     * @param id the number of the state
+     */
+    default void expanded(T state, int id) {}
+  }
+
+  private final Order order;
+  private final Deque<T> frontier = new ArrayDeque<>();
+  private final Map<T, Integer> ids = new HashMap<>();
+  private Listener<? super T> listener;
+
+  public SearchFrontier() {
+    this(Order.BREADTH_FIRST);
+  }
+
+  public SearchFrontier(@NonNull Order order) {
+    this.order = order;
+  }
+
+  public SearchFrontier(@NonNull Order order, @NonNull Listener<? super T> listener) {
+    this.order = order;
+    this.listener = listener;
+  }
+
+  /**
+   * Get the number of a state, discovering it if it was not seen before.
+   * New states are numbered consecutively from 0 and added to the frontier.
+   * @param state a state
+   * @return the number of the state
+   */
+  public int discover(T state) {
+    Integer id = ids.get(state);
+    if (id != null) return id;
+
+    id = ids.size();
+    ids.put(state, id);
+    frontier.add(state);
+    if (listener != null) listener.discovered(state, id);
+    return id;
+  }
+
+  /**
+   * @param state a state
+   * @return true if the state was discovered
+   */
+  public boolean isDiscovered(T state) {
+    return ids.containsKey(state);
+  }
+
+  /**
+   * @param state a discovered state
+   * @return the number of the state
+   * @throws IllegalArgumentException if the state was not discovered
+   */
+  public int id(T state) {
+    Integer id = ids.get(state);
+    if (id == null) throw new IllegalArgumentException("state not discovered");
+    return id;
+  }
+
+  /**
+   * Take the next state to expand
+   * @return the oldest state in breadth-first order, the newest in depth-first order
+   * @throws NoSuchElementException if the frontier is empty
+   */
+  public T next() {
+    T state = order == Order.BREADTH_FIRST ? frontier.removeFirst() : frontier.removeLast();
+    if (listener != null) listener.expanded(state, ids.get(state));
+    return state;
+  }
+
+  public boolean isEmpty() {
+    return frontier.isEmpty();
+  }
+
+  /**
+   * @return the number of discovered states
+   */
+  public int discoveredCount() {
+    return ids.size();
+  }
+}
@@ -0,0 +1,193 @@
+package lkh.automata.impl;
+
+import java.util.*;
+
+/**
+ * Bit-parallel subset construction over a NFA.
+ * The states of the NFA are numbered densely and sets of states are bitsets of those numbers.
+ * The lambda closure of each state, taken from the automaton, and the closed successors of each state by
+ * each symbol are turned into bitsets once on first use, so the closed successor of a set by a symbol is
+ * the word-wide OR of the successors of its members.
+ *
+ * @param <State> the type of the states of the NFA
+ * @param <Symbol> the type of the symbols
+ */
+class SubsetConstruction<State, Symbol> {
+  private static final int EPSILON = -1;
+  private static final int UNKNOWN = -2;
+  private static final long[] NONE = new long[0];
+
+  private final GraphNonDeterministicAutomaton<State, Symbol> automaton;
+  private final List<State> states;
+  private final Map<State, Integer> numbers;
+  private final List<Symbol> symbols;
+  private final int words;
+  private final long[] finals;
+
+  // Outgoing transitions of each state: symbol index (or EPSILON/UNKNOWN) and target number
+  private final int[][] edgeSymbols;
+  private final int[][] edgeTargets;
+
+  private final long[][] closures;
+  private final long[][][] steps;
+
+  /**
+   * @param automaton the NFA
+   * @param symbols the symbols the sets are moved by; symbols without transitions lead to the empty set
+   */
+  SubsetConstruction(GraphNonDeterministicAutomaton<State, Symbol> automaton, Collection<Symbol> symbols) {
+    this.automaton = automaton;
+    this.states = new ArrayList<>(automaton.getStates());
+    this.symbols = new ArrayList<>(symbols);
+
+    int n = states.size();
+    this.numbers = new HashMap<>(2 * n);
+    for (int i = 0; i < n; i++) {
+      numbers.put(states.get(i), i);
+    }
+    this.words = (n + 63) >>> 6;
+
+    Map<Symbol, Integer> symbolIndex = new HashMap<>();
+    for (int i = 0; i < this.symbols.size(); i++) {
+      symbolIndex.put(this.symbols.get(i), i);
+    }
+
+    this.edgeSymbols = new int[n][];
+    this.edgeTargets = new int[n][];
+    for (int i = 0; i < n; i++) {
+      int degree = automaton.graph.getOutDegree(states.get(i));
+      int[] edgeSymbol = new int[degree];
+      int[] edgeTarget = new int[degree];
+      int[] next = {0};
+      automaton.graph.forEachOutgoing(states.get(i), edge -> {
+        edgeSymbol[next[0]] = edge.getSymbol() == null ? EPSILON : symbolIndex.getOrDefault(edge.getSymbol(), UNKNOWN);
+        edgeTarget[next[0]++] = numbers.get(edge.getTarget());
+      });
+      edgeSymbols[i] = edgeSymbol;
+      edgeTargets[i] = edgeTarget;
+    }
+
+    this.finals = new long[words];
+    for (State state : automaton.getFinalStates()) {
+      Integer number = numbers.get(state);
+      if (number != null) finals[number >>> 6] |= 1L << number;
+    }
+
+    this.closures = new long[n][];
+    this.steps = new long[n][this.symbols.size()][];
+  }
+
+  /**
+   * @return the symbols, in the order of their indices
+   */
+  List<Symbol> getSymbols() {
+    return symbols;
+  }
+
+  /**
+   * @param state a state of the NFA
+   * @return the lambda closure of the state
+   */
+  StateSet closure(State state) {
+    Integer number = numbers.get(state);
+    if (number == null) throw new IllegalArgumentException("state not in automaton");
+
+    return new StateSet(closure(number).clone());
+  }
+
+  /**
+   * Compute the lambda closure of the move of a closed set by a symbol
+   * @param set a lambda-closed set of states
+   * @param symbol the index of the symbol
+   * @return the closed successor, or null if it is empty
+   */
+  StateSet successor(StateSet set, int symbol) {
+    long[] result = new long[words];
+    boolean empty = true;
+
+    for (int w = 0; w < words; w++) {
+      long word = set.words[w];
+      while (word != 0) {
+        long[] step = step((w << 6) + Long.numberOfTrailingZeros(word), symbol);
+        if (step != NONE) {
+          or(result, step);
+          empty = false;
+        }
+        word &= word - 1;
+      }
+    }
+
+    return empty ? null : new StateSet(result);
+  }
+
+  /**
+   * @param set a set of states
+   * @return true if the set contains a final state
+   */
+  boolean isFinal(StateSet set) {
+    for (int w = 0; w < words; w++) {
+      if ((set.words[w] & finals[w]) != 0) return true;
+    }
+    return false;
+  }
+
+  private long[] closure(int state) {
+    if (closures[state] != null) return closures[state];
+
+    long[] closure = new long[words];
+    for (State member : automaton.lambdaClosure(states.get(state))) {
+      int number = numbers.get(member);
+      closure[number >>> 6] |= 1L << number;
+    }
+
+    closures[state] = closure;
+    return closure;
+  }
+
+  private long[] step(int state, int symbol) {
+    if (steps[state][symbol] != null) return steps[state][symbol];
+
+    long[] step = NONE;
+    for (int i = 0; i < edgeSymbols[state].length; i++) {
+      if (edgeSymbols[state][i] != symbol) continue;
+
+      if (step == NONE) step = new long[words];
+      or(step, closure(edgeTargets[state][i]));
+    }
+
+    steps[state][symbol] = step;
+    return step;
+  }
+
+  private static void or(long[] target, long[] source) {
+    for (int w = 0; w < target.length; w++) {
+      target[w] |= source[w];
+    }
+  }
+
+  /**
+   * An immutable set of states of a SubsetConstruction, usable as a map key.
+   * The hash is computed once.
+   */
+  static final class StateSet {
+    private final long[] words;
+    private final int hash;
+
+    private StateSet(long[] words) {
+      this.words = words;
+      this.hash = Arrays.hashCode(words);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof StateSet other)) return false;
+      return hash == other.hash && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package lkh.automata.impl;
+
+/**
+ * The result of trimming an automaton.
+ *
+ * @param automaton the trimmed automaton
+ * @param removedStates the number of states removed
+ * @param removedTransitions the number of transitions removed
+ * @param <State> the type of the states
+ * @param <Symbol> the type of the symbols
+ * @see AutomataOperations#trim
+ */
+public record TrimResult<State, Symbol>(GraphDeterministicAutomaton<State, Symbol> automaton,
+                                        int removedStates, int removedTransitions) {}
@@ -3,13 +3,12 @@ package lkh.cli;
 import lkh.expression.Expression;
 import lkh.lts.LTS;
 import lkh.lts.builder.PDDL;
-import lkh.modelchecker.AutomataModelChecker;
+import lkh.modelchecker.QuotientModelChecker;
 import logger.GraphLogger;
 import logger.LoggerContext;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.Iterator;
 import java.util.List;
 
 public class PddlChecker {
@@ -51,8 +50,10 @@ public class PddlChecker {
       ltsLogger.printLog();
 
       System.out.println("[3/4] Building KH automaton and checking expression...");
-      // Prepare model checker
-      AutomataModelChecker<Integer, String> mc = new AutomataModelChecker<>(lts, pddl.getInitialState());
+      // Prepare model checker over the bisimulation quotient of the LTS
+      QuotientModelChecker<Integer, String> mc = new QuotientModelChecker<>(lts, pddl.getInitialState());
+      System.out.println("Bisimulation quotient: " + mc.getQuotient().getBlockCount() + " of "
+          + lts.getStates().size() + " states");
 
       // Build and check KH expression while logging KH automaton generation
       Expression initial = pddl.getInitialExpression();
@@ -72,9 +73,9 @@ public class PddlChecker {
       System.out.println(message);
 
       if (result) {
-        Iterator<List<String>> wit = mc.witnesses(initial, goal, 10);
-        if (wit.hasNext()) {
-          System.out.println("Witness (first): " + wit.next());
+        List<List<String>> wit = mc.shortestWitnesses(initial, goal, 1, 10);
+        if (!wit.isEmpty()) {
+          System.out.println("Witness (shortest): " + wit.get(0));
         }
       }
 
@@ -2,56 +2,105 @@ package lkh.expression;
 
 import lkh.expression.parser.ParseException;
 import lkh.expression.parser.Parser;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringReader;
 import java.util.Arrays;
-
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
+import java.util.Objects;
+
+/**
+ * A KH-Logic expression tree.
+ * Expressions are immutable and their hash is computed when they are created.
+ * The static factories build them through the ExpressionFactory, so equal expressions built that way
+ * are the same object and compare in constant time.
+ */
+@Getter
+@ToString(exclude = {"id", "hash"})
 public class Expression {
-  private ExpressionType tokenType;
-  private String name;
-  private Expression left;
-  private Expression right;
-  private int size;
+  static final int NO_ID = -1;
+
+  private final ExpressionType tokenType;
+  private final String name;
+  private final Expression left;
+  private final Expression right;
+  private final int size;
+  // Id given by the ExpressionFactory, or NO_ID if the expression was not interned
+  private final int id;
+  private final int hash;
 
   public Expression(ExpressionType tokenType, String name) {
     this(tokenType, name, null, null);
   }
 
   public Expression(ExpressionType tokenType, String name, Expression left, Expression right) {
+    this(tokenType, name, left, right, NO_ID);
+  }
+
+  Expression(ExpressionType tokenType, String name, Expression left, Expression right, int id) {
     this.tokenType = tokenType;
     this.name=name;
     this.left=left;
     this.right=right;
+    this.id = id;
 
-    this.size = 1;
+    int size = 1;
     if (left != null)
-      this.size += left.size;
+      size += left.size;
     if (right != null)
-      this.size += right.size;
+      size += right.size;
+    this.size = size;
+
+    int hash = tokenType == null ? 43 : tokenType.ordinal();
+    hash = hash * 59 + Objects.hashCode(name);
+    hash = hash * 59 + (left == null ? 43 : left.hash);
+    hash = hash * 59 + (right == null ? 43 : right.hash);
+    this.hash = hash;
+  }
+
+  /**
+   * Return whether the expression is the shared instance created by the ExpressionFactory
+   * @return true if the expression is interned
+   */
+  public boolean isInterned() {
+    return id != NO_ID;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof Expression other)) return false;
+    if (hash != other.hash) return false;
+    // Equal interned expressions are the same object
+    if (isInterned() && other.isInterned()) return false;
+
+    return tokenType == other.tokenType
+        && Objects.equals(name, other.name)
+        && Objects.equals(left, other.left)
+        && Objects.equals(right, other.right);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
   }
 
   public static Expression kh(Expression left, Expression right) {
-    return new Expression(ExpressionType.KH, "kh", left, right);
+    return ExpressionFactory.getInstance().make(ExpressionType.KH, "kh", left, right);
   }
 
   public static Expression implies(Expression left, Expression right) {
-    return new Expression(ExpressionType.IMPLIES, "implies", left, right);
+    return ExpressionFactory.getInstance().make(ExpressionType.IMPLIES, "implies", left, right);
   }
 
   public static Expression or(Expression left, Expression right) {
-    return new Expression(ExpressionType.OR, "or", left, right);
+    return ExpressionFactory.getInstance().make(ExpressionType.OR, "or", left, right);
   }
 
   public static Expression and(Expression left, Expression right) {
-    return new Expression(ExpressionType.AND, "and", left, right);
+    return ExpressionFactory.getInstance().make(ExpressionType.AND, "and", left, right);
   }
 
   public static Expression and(Expression ...expressions) {
@@ -62,11 +111,11 @@ public class Expression {
   }
 
   public static Expression not(Expression expr) {
-    return new Expression(ExpressionType.NOT, "not", null, expr);
+    return ExpressionFactory.getInstance().make(ExpressionType.NOT, "not", null, expr);
   }
 
   public static Expression prop(String name) {
-    return new Expression(ExpressionType.PROP, name);
+    return ExpressionFactory.getInstance().make(ExpressionType.PROP, name, null, null);
   }
 
   public Expression not() {
@@ -75,7 +124,7 @@ public class Expression {
 
   public static Expression of(String expression) throws ParseException {
     Parser parser = new Parser(new StringReader(expression));
-    return parser.Expression();
+    return ExpressionFactory.getInstance().intern(parser.Expression());
   }
 
 }
@@ -0,0 +1,106 @@
+package lkh.expression;
+
+import lombok.NonNull;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hash-consing factory of expressions.
+ * Every distinct expression is created once and shared, so expressions built through the factory form a DAG
+ * where equal subformulas are the same object. Interned nodes get a stable integer id, which makes
+ * equals between them an id comparison, and their hash is computed once when they are created.
+ * The factory only keeps weak references to the nodes: a node that is no longer used anywhere is collected
+ * and its entry removed, and the same expression built later is a new node with a new id. A node holds its
+ * children, so the ids in the entries of live nodes always belong to live nodes.
+ * The table is concurrent, so expressions can be built from several threads without locking.
+ */
+public final class ExpressionFactory {
+  private static final ExpressionFactory instance = new ExpressionFactory();
+
+  private final ConcurrentMap<Key, NodeReference> nodes = new ConcurrentHashMap<>();
+  private final ReferenceQueue<Expression> collected = new ReferenceQueue<>();
+  private final AtomicInteger nextId = new AtomicInteger();
+
+  private ExpressionFactory() {}
+
+  public static ExpressionFactory getInstance() {
+    return instance;
+  }
+
+  /**
+   * Return the shared expression with the given type, name and children.
+   * Children that were not built by the factory are interned first.
+   * @param tokenType the type of the node
+   * @param name the name of the node
+   * @param left the left child, or null
+   * @param right the right child, or null
+   * @return the interned expression
+   */
+  public Expression make(@NonNull ExpressionType tokenType, String name, Expression left, Expression right) {
+    removeCollected();
+
+    Expression internedLeft = left == null ? null : intern(left);
+    Expression internedRight = right == null ? null : intern(right);
+    Key key = new Key(tokenType, name, id(internedLeft), id(internedRight));
+
+    while (true) {
+      NodeReference reference = nodes.get(key);
+      Expression node = reference == null ? null : reference.get();
+      if (node != null) return node;
+
+      node = new Expression(tokenType, name, internedLeft, internedRight, nextId.getAndIncrement());
+      NodeReference created = new NodeReference(node, key, collected);
+      boolean stored = reference == null
+          ? nodes.putIfAbsent(key, created) == null
+          : nodes.replace(key, reference, created);
+      // Otherwise another thread stored the node first, and the loop returns it
+      if (stored) return node;
+    }
+  }
+
+  /**
+   * Return the shared expression equal to the given one
+   * @param expression an expression, possibly built without the factory
+   * @return the interned expression
+   */
+  public Expression intern(@NonNull Expression expression) {
+    if (expression.isInterned()) return expression;
+    return make(expression.getTokenType(), expression.getName(), expression.getLeft(), expression.getRight());
+  }
+
+  /**
+   * Get the number of distinct expressions held by the factory.
+   * Expressions that were collected but whose entries were not removed yet are counted too.
+   * @return the number of interned expressions
+   */
+  public int size() {
+    removeCollected();
+    return nodes.size();
+  }
+
+  private void removeCollected() {
+    for (var reference = collected.poll(); reference != null; reference = collected.poll()) {
+      NodeReference node = (NodeReference) reference;
+      nodes.remove(node.key, node);
+    }
+  }
+
+  private static int id(Expression expression) {
+    return expression == null ? Expression.NO_ID : expression.getId();
+  }
+
+  private record Key(ExpressionType tokenType, String name, int left, int right) {}
+
+  private static final class NodeReference extends WeakReference<Expression> {
+    private final Key key;
+
+    NodeReference(Expression node, Key key, ReferenceQueue<Expression> queue) {
+      super(node, queue);
+      this.key = key;
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package lkh.graph;
+
+import lkh.graph.edge.Edge;
+
+import java.util.List;
+
+/**
+ * A directed graph that also indexes the edges by their target vertex, so that queries over
+ * incoming edges cost time proportional to the in-degree of the vertex instead of the size of the graph.
+ *
+ * @param <V> The type of vertices in the directed graph
+ * @param <E> The type of edges in the directed graph, which must extend the Edge interface
+ */
+public interface BidirectionalDirectedGraph<V, E extends Edge<V>> extends DirectedGraph<V, E> {
+
+    /**
+     * Retrieves a list of edges that reach the specified vertex.
+     *
+     * @param vertex The vertex to find incoming edges.
+     * @return A list of edges that are incoming to the specified vertex.
+     */
+    List<E> getIncomingEdges(V vertex);
+}
@@ -0,0 +1,85 @@
+package lkh.graph;
+
+import lkh.graph.edge.Edge;
+import logger.Logger;
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A HashMapDirectedGraph that also maintains a reverse index from each vertex to its incoming edges.
+ * The index is updated on every insertion and removal, which makes getInDegree and getIncomingNeighbors
+ * proportional to the in-degree of the vertex at the cost of storing each edge twice.
+ *
+ * @param <V> The type of the vertices in the graph.
+ * @param <E> The type of the edges in the graph, constrained to extend the Edge interface.
+ */
+public class BidirectionalHashMapDirectedGraph<V, E extends Edge<V>>
+    extends HashMapDirectedGraph<V, E>
+    implements BidirectionalDirectedGraph<V, E> {
+  private final Map<V, Set<E>> reverse = new HashMap<>();
+
+  public BidirectionalHashMapDirectedGraph() {
+    super();
+  }
+
+  public BidirectionalHashMapDirectedGraph(Logger logger) {
+    super(logger);
+  }
+
+  @Override
+  public void addVertex(@NonNull V vertex) {
+    super.addVertex(vertex);
+    reverse.putIfAbsent(vertex, new HashSet<>());
+  }
+
+  @Override
+  public void addEdge(@NonNull E edge) {
+    super.addEdge(edge);
+    reverse.get(edge.getTarget()).add(edge);
+  }
+
+  @Override
+  public boolean removeEdge(E edge) {
+    if (!super.removeEdge(edge)) return false;
+
+    reverse.get(edge.getTarget()).remove(edge);
+    return true;
+  }
+
+  @Override
+  public void removeOutgoingEdgesIf(V vertex, Predicate<E> predicate) {
+    if (!containsVertex(vertex)) return;
+
+    for (E edge : getOutgoingEdges(vertex)) {
+      if (predicate.test(edge)) removeEdge(edge);
+    }
+  }
+
+  @Override
+  public int getInDegree(V vertex) {
+    Set<E> incoming = reverse.get(vertex);
+    return incoming == null ? 0 : incoming.size();
+  }
+
+  @Override
+  public List<E> getIncomingEdges(V vertex) {
+    if (!containsVertex(vertex))
+      throw new IllegalArgumentException("Vertex " + vertex + " does not exist");
+
+    return new ArrayList<>(reverse.get(vertex));
+  }
+
+  @Override
+  public List<V> getIncomingNeighbors(V vertex) {
+    List<V> neighbors = new ArrayList<>();
+
+    if (containsVertex(vertex)) {
+      for (E edge : reverse.get(vertex)) {
+        neighbors.add(edge.getSource());
+      }
+    }
+    return neighbors;
+  }
+}
@@ -2,6 +2,9 @@ package lkh.graph;
 import lkh.graph.edge.Edge;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Represents a directed graph data structure where edges have a specific direction from source to target vertices.
@@ -40,6 +43,35 @@ public interface DirectedGraph<V, E extends Edge<V>> extends Graph<V, E> {
      */
     List<E> getOutgoingEdges(V vertex);
 
+    /**
+     * Performs the given action for each edge going out of the specified vertex, without copying them.
+     * The action must not modify the graph.
+     *
+     * @param vertex The vertex whose outgoing edges are visited.
+     * @param action The action to perform on each edge.
+     */
+    void forEachOutgoing(V vertex, Consumer<? super E> action);
+
+    /**
+     * Performs the given action for each edge going out of the specified vertex that satisfies the filter,
+     * without copying them. The action must not modify the graph.
+     *
+     * @param vertex The vertex whose outgoing edges are visited.
+     * @param filter A function that returns true for edges that should be visited.
+     * @param action The action to perform on each visited edge.
+     */
+    void forEachOutgoing(V vertex, Predicate<? super E> filter, Consumer<? super E> action);
+
+    /**
+     * Retrieves the first edge going out of the specified vertex that satisfies the predicate,
+     * stopping the search there.
+     *
+     * @param vertex The vertex whose outgoing edges are searched.
+     * @param predicate A function that returns true for the edge to find.
+     * @return The edge found, or empty if no outgoing edge satisfies the predicate.
+     */
+    Optional<E> findOutgoing(V vertex, Predicate<? super E> predicate);
+
     /**
      * Retrieves a list of neighbors that represent the vertices directly reachable
      * from the specified vertex (outgoing neighbors).
@@ -3,7 +3,6 @@ package lkh.graph;
 import lkh.graph.edge.Edge;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class DirectedGraphOperations {
 
@@ -11,6 +10,8 @@ public class DirectedGraphOperations {
    * Identifies and returns the strongly connected components (SCCs) of a directed graph.
    * A strongly connected component is a maximal subgraph where any two vertices are
    * reachable from one another.
+   * Vertices are numbered densely and Tarjan's algorithm runs over int arrays with an explicit
+   * call stack, so the depth of the graph is not limited by the thread stack.
    *
    * @param <V> The type of vertices in the graph.
    * @param <E> The type of edges in the graph, extending the Edge interface.
@@ -18,76 +19,89 @@ public class DirectedGraphOperations {
    * @return A set of sets of vertices, where each inner set represents a strongly connected component.
    */
   public static <V, E extends Edge<V>> Set<Set<V>> getSCCs(DirectedGraph<V, E> graph) {
-    AtomicInteger id = new AtomicInteger(0);
-    Map<V,Integer> ids = new HashMap<>();
-    Map<V,Integer> low = new HashMap<>();
-    Map<V,Boolean> onStack = new HashMap<>();
-    Stack<V> stack = new Stack<>();
-
-    // Initialize all structures
-    for (V v : graph.getVertices()) {
-      ids.put(v, -1);
-      low.put(v, -1);
-      onStack.put(v, false);
+    // Dense numbering of the vertices
+    List<V> vertices = new ArrayList<>(graph.getVertices());
+    int n = vertices.size();
+    Map<V, Integer> numbers = new HashMap<>(2 * n);
+    for (int i = 0; i < n; i++) {
+      numbers.put(vertices.get(i), i);
     }
 
-    // Recursive start
-    for (V v : graph.getVertices()) {
-      if (ids.get(v) == -1) {
-        getSCCsUtil(graph, v, id, ids, low, onStack, stack);
-      }
+    // Adjacency in compressed rows: the successors of v are targets[offsets[v]..offsets[v + 1])
+    int[] offsets = new int[n + 1];
+    for (int v = 0; v < n; v++) {
+      offsets[v + 1] = offsets[v] + graph.getOutDegree(vertices.get(v));
     }
-
-    // Extract SCC's
-    // For this, collect keys with same value from low map
-    Map<Integer, Set<V>> result = new HashMap<>();
-    for (V v : graph.getVertices()) {
-      Integer lowValue = low.get(v);
-      if (!result.containsKey(lowValue)) result.put(lowValue, new HashSet<>());
-      result.get(lowValue).add(v);
+    int[] targets = new int[offsets[n]];
+    int[] fill = Arrays.copyOf(offsets, n);
+    for (int v = 0; v < n; v++) {
+      int row = v;
+      graph.forEachOutgoing(vertices.get(v), edge -> targets[fill[row]++] = numbers.get(edge.getTarget()));
     }
 
-    return new HashSet<>(result.values());
-  }
-
-  /**
-   * Recursively identifies and processes Strongly Connected Components (SCCs) within a directed graph
-   * using Tarjan's algorithm. This method updates discovery and low-link values for vertices, pushes
-   * vertices onto a stack, and extracts SCCs when appropriate.
-   *
-   * @param <V>       The type representing vertices in the graph.
-   * @param <E>       The type representing edges in the graph, extending the {@code Edge<V>} interface.
-   * @param graph     The directed graph to be processed.
-   * @param v         The current vertex being visited.
-   * @param id        The discovery index to assign to the vertex.
-   * @param ids       A map keeping track of discovery indices for vertices.
-   * @param low       A map storing the lowest discovery index reachable from each vertex.
-   * @param onStack   A map indicating whether each vertex is currently on the stack.
-   * @param stack     A stack used during the DFS to keep track of visited vertices.
-   */
-  private static <V, E extends Edge<V>> void getSCCsUtil(DirectedGraph<V, E> graph, V v, AtomicInteger id, Map<V, Integer> ids, Map<V, Integer> low, Map<V, Boolean> onStack, Stack<V> stack) {
-    stack.push(v);
-    ids.put(v, id.get());
-    low.put(v, id.getAndIncrement());
-    onStack.put(v, true);
-
-    for (V n : graph.getNeighbors(v)) {
-      // Recursive call
-      if (ids.get(n) == -1)  getSCCsUtil(graph, n, id, ids, low, onStack, stack);
-      // Low update if explored neighbor is on the stack
-      if (onStack.get(n))    low.put(v, Math.min(low.get(v), low.get(n)));
-    }
-
-    // If v is the SCC's initializer, then remove all SCC's members of the stack
-    if (ids.get(v).equals(low.get(v))) {
-      while (true) {
-        V n = stack.pop();
-        onStack.put(n, false);
-
-        if (n.equals(v)) break;
-        else low.put(n, low.get(v));
+    int[] ids = new int[n];
+    int[] low = new int[n];
+    int[] nextEdge = new int[n];
+    boolean[] onStack = new boolean[n];
+    int[] stack = new int[n];
+    int[] callStack = new int[n];
+    int id = 0;
+    Set<Set<V>> result = new HashSet<>();
+
+    Arrays.fill(ids, -1);
+
+    for (int root = 0; root < n; root++) {
+      if (ids[root] != -1) continue;
+
+      int sp = 0;
+      int csp = 0;
+      ids[root] = low[root] = id++;
+      nextEdge[root] = offsets[root];
+      stack[sp++] = root;
+      onStack[root] = true;
+      callStack[csp++] = root;
+
+      while (csp > 0) {
+        int v = callStack[csp - 1];
+
+        if (nextEdge[v] < offsets[v + 1]) {
+          int w = targets[nextEdge[v]++];
+
+          if (ids[w] == -1) {
+            // Descend into w
+            ids[w] = low[w] = id++;
+            nextEdge[w] = offsets[w];
+            stack[sp++] = w;
+            onStack[w] = true;
+            callStack[csp++] = w;
+          } else if (onStack[w]) {
+            low[v] = Math.min(low[v], ids[w]);
+          }
+          continue;
+        }
+
+        // All the successors of v were explored, return to its caller
+        csp--;
+        if (csp > 0) {
+          int caller = callStack[csp - 1];
+          low[caller] = Math.min(low[caller], low[v]);
+        }
+
+        // If v is the SCC's initializer, then remove all SCC's members of the stack
+        if (ids[v] == low[v]) {
+          Set<V> component = new HashSet<>();
+          int w;
+          do {
+            w = stack[--sp];
+            onStack[w] = false;
+            component.add(vertices.get(w));
+          } while (w != v);
+          result.add(component);
+        }
       }
     }
+
+    return result;
   }
 
   /**
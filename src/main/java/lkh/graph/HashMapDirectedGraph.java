@@ -9,6 +9,7 @@ import logger.LoggerContext;
 import lombok.NonNull;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 
@@ -129,6 +130,26 @@ public class HashMapDirectedGraph<V, E extends Edge<V>>
     return new ArrayList<>(map.get(vertex));
   }
 
+  @Override
+  public void forEachOutgoing(V vertex, Consumer<? super E> action) {
+    outgoing(vertex).forEach(action);
+  }
+
+  @Override
+  public void forEachOutgoing(V vertex, Predicate<? super E> filter, Consumer<? super E> action) {
+    for (E edge : outgoing(vertex)) {
+      if (filter.test(edge)) action.accept(edge);
+    }
+  }
+
+  @Override
+  public Optional<E> findOutgoing(V vertex, Predicate<? super E> predicate) {
+    for (E edge : outgoing(vertex)) {
+      if (predicate.test(edge)) return Optional.of(edge);
+    }
+    return Optional.empty();
+  }
+
   @Override
   public List<V> getOutgoingNeighbors(V vertex) {
     List<V> neighbors = new ArrayList<>();
@@ -166,6 +187,14 @@ public class HashMapDirectedGraph<V, E extends Edge<V>>
     return neighbors;
   }
 
+  private Set<E> outgoing(V vertex) {
+    Set<E> edges = map.get(vertex);
+    if (edges == null)
+      throw new IllegalArgumentException("Vertex " + vertex + " does not exist");
+
+    return edges;
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (this == obj) return true;
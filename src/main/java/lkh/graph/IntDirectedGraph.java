@@ -0,0 +1,586 @@
+package lkh.graph;
+
+import lkh.graph.edge.Edge;
+import lkh.utils.Pair;
+import logger.AbstractLoggable;
+import logger.LogEvent;
+import logger.Logger;
+import logger.LoggerContext;
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * A directed graph over non-negative int vertices, backed by primitive arrays.
+ * The outgoing edges of each vertex are stored as a growable int[] of targets and a parallel array of labels,
+ * so no edge object is kept per transition. The label of an edge is whatever distinguishes it from other edges
+ * with the same endpoints (an action, a symbol, or null for plain edges).
+ * <p>
+ * The primitive methods (outDegree, target, label and forEachOutgoing) read the arrays in place and don't
+ * allocate. Vertices with more than INDEX_THRESHOLD outgoing edges also get a hash index of their edges by
+ * target and label, so that adding, finding and removing an edge doesn't scan the whole adjacency.
+ * The DirectedGraph methods are also supported, so the graph can back automata and LTSs with
+ * Integer states: edges are split into a label with labelOf when they are added, and rebuilt with the
+ * edge factory when they are returned.
+ *
+ * @param <L> The type of the edge labels.
+ * @param <E> The type of the edges in the graph, constrained to extend the Edge interface.
+ */
+public class IntDirectedGraph<L, E extends Edge<Integer>>
+    extends AbstractLoggable
+    implements DirectedGraph<Integer, E> {
+  private static final int[] NO_TARGETS = new int[0];
+  private static final Object[] NO_LABELS = new Object[0];
+  // Out-degree above which a vertex gets a hash index of its edges, below it a linear scan is faster
+  private static final int INDEX_THRESHOLD = 16;
+
+  private final Function<? super E, ? extends L> labelOf;
+  private final EdgeFactory<L, E> edgeFactory;
+  private final BitSet vertices = new BitSet();
+  private int[][] targets = new int[0][];
+  private Object[][] labels = new Object[0][];
+  private int[] degrees = new int[0];
+  // Open addressing tables of edge positions plus one by (target, label), null for small vertices
+  private int[][] indexes = new int[0][];
+  private int vertexCount;
+  private int edgeCount;
+
+  /**
+   * @param labelOf a function giving the label of an edge
+   * @param edgeFactory a function building an edge from its source, target and label
+   */
+  public IntDirectedGraph(@NonNull Function<? super E, ? extends L> labelOf, @NonNull EdgeFactory<L, E> edgeFactory) {
+    this.labelOf = labelOf;
+    this.edgeFactory = edgeFactory;
+
+    // Automatically pick up logger from context if set
+    Logger contextLogger = LoggerContext.getLogger();
+    if (contextLogger != null) {
+      registerLogger(contextLogger);
+    }
+  }
+
+  public IntDirectedGraph(@NonNull Function<? super E, ? extends L> labelOf, @NonNull EdgeFactory<L, E> edgeFactory, Logger logger) {
+    this(labelOf, edgeFactory);
+    registerLogger(logger);
+  }
+
+  /**
+   * Builds an edge of the graph from its parts.
+   * @param <L> The type of the edge labels.
+   * @param <E> The type of the edges.
+   */
+  @FunctionalInterface
+  public interface EdgeFactory<L, E> {
+    E create(int source, int target, L label);
+  }
+
+  /**
+   * Receives the outgoing edges of a vertex.
+   * @param <L> The type of the edge labels.
+   */
+  @FunctionalInterface
+  public interface EdgeVisitor<L> {
+    void visit(int target, L label);
+  }
+
+  /**
+   * Adds a vertex with the lowest number not in the graph.
+   *
+   * @return the number of the new vertex.
+   */
+  public int addVertex() {
+    int vertex = vertices.nextClearBit(0);
+    addVertex(vertex);
+    return vertex;
+  }
+
+  /**
+   * Adds the vertex to the graph. If the vertex already exists in the graph, no action is taken.
+   *
+   * @param vertex a non-negative vertex number.
+   */
+  public void addVertex(int vertex) {
+    if (vertex < 0) throw new IllegalArgumentException("vertices must be non-negative");
+    if (vertices.get(vertex)) return;
+
+    ensureCapacity(vertex);
+    vertices.set(vertex);
+    vertexCount++;
+    if (getLogger() != null) log(LogEvent.ADD_VERTEX);
+  }
+
+  /**
+   * Adds an edge to the graph, adding its endpoints if needed.
+   *
+   * @param source the source vertex.
+   * @param target the target vertex.
+   * @param label the label of the edge.
+   * @return false if the graph already had the edge.
+   */
+  public boolean addEdge(int source, int target, L label) {
+    addVertex(source);
+    addVertex(target);
+    if (indexOf(source, target, label) != -1) return false;
+
+    int degree = degrees[source];
+    if (degree == targets[source].length) {
+      int capacity = Math.max(4, 2 * degree);
+      targets[source] = Arrays.copyOf(targets[source], capacity);
+      labels[source] = Arrays.copyOf(labels[source], capacity);
+    }
+    targets[source][degree] = target;
+    labels[source][degree] = label;
+    degrees[source]++;
+    edgeCount++;
+    if (indexes[source] != null) indexEdge(source, degree);
+    else if (degrees[source] > INDEX_THRESHOLD) rebuildIndex(source);
+
+    if (getLogger() != null) log(LogEvent.ADD_EDGE);
+    return true;
+  }
+
+  /**
+   * Removes an edge from the graph.
+   *
+   * @param source the source vertex.
+   * @param target the target vertex.
+   * @param label the label of the edge.
+   * @return true if the edge was removed, false if it was not found.
+   */
+  public boolean removeEdge(int source, int target, L label) {
+    if (!containsVertex(source)) return false;
+
+    int index = indexOf(source, target, label);
+    if (index == -1) return false;
+
+    removeAt(source, index);
+    return true;
+  }
+
+  public boolean containsVertex(int vertex) {
+    return vertex >= 0 && vertices.get(vertex);
+  }
+
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  public int edgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * Gets the number of outgoing edges of the vertex, which are numbered from 0 for target() and label().
+   *
+   * @param vertex a vertex number.
+   * @return the out-degree of the vertex, 0 if it is not in the graph.
+   */
+  public int outDegree(int vertex) {
+    return containsVertex(vertex) ? degrees[vertex] : 0;
+  }
+
+  /**
+   * Gets the target of the i-th outgoing edge of the vertex.
+   *
+   * @param vertex a vertex of the graph.
+   * @param i a number between 0 and outDegree(vertex) - 1.
+   * @return the target of the edge.
+   */
+  public int target(int vertex, int i) {
+    checkEdgeIndex(vertex, i);
+    return targets[vertex][i];
+  }
+
+  /**
+   * Gets the label of the i-th outgoing edge of the vertex.
+   *
+   * @param vertex a vertex of the graph.
+   * @param i a number between 0 and outDegree(vertex) - 1.
+   * @return the label of the edge.
+   */
+  @SuppressWarnings("unchecked")
+  public L label(int vertex, int i) {
+    checkEdgeIndex(vertex, i);
+    return (L) labels[vertex][i];
+  }
+
+  /**
+   * Calls the visitor with the target and label of each outgoing edge of the vertex.
+   * The visitor must not modify the graph.
+   *
+   * @param vertex a vertex number.
+   * @param visitor the visitor of the edges.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachOutgoing(int vertex, EdgeVisitor<? super L> visitor) {
+    if (!containsVertex(vertex)) return;
+
+    int[] vertexTargets = targets[vertex];
+    Object[] vertexLabels = labels[vertex];
+    for (int i = 0; i < degrees[vertex]; i++) {
+      visitor.visit(vertexTargets[i], (L) vertexLabels[i]);
+    }
+  }
+
+  /**
+   * Calls the action with the target of each outgoing edge of the vertex that has the given label.
+   * The action must not modify the graph.
+   *
+   * @param vertex a vertex number.
+   * @param label the label of the edges to visit.
+   * @param action the action to perform on each target.
+   */
+  public void forEachTarget(int vertex, L label, IntConsumer action) {
+    if (!containsVertex(vertex)) return;
+
+    int[] vertexTargets = targets[vertex];
+    Object[] vertexLabels = labels[vertex];
+    for (int i = 0; i < degrees[vertex]; i++) {
+      if (Objects.equals(vertexLabels[i], label)) action.accept(vertexTargets[i]);
+    }
+  }
+
+  @Override
+  public void addVertex(@NonNull Integer vertex) {
+    addVertex(vertex.intValue());
+  }
+
+  @Override
+  public void addEdge(@NonNull E edge) {
+    addEdge(edge.getSource(), edge.getTarget(), labelOf.apply(edge));
+  }
+
+  @Override
+  public void addVertices(@NonNull Set<Integer> vertices) {
+    for (Integer vertex : vertices) {
+      addVertex(vertex);
+    }
+  }
+
+  @Override
+  public void addEdges(@NonNull Set<E> edges) {
+    for (E edge : edges) {
+      addEdge(edge);
+    }
+  }
+
+  @Override
+  public boolean containsVertex(Integer vertex) {
+    return vertex != null && containsVertex(vertex.intValue());
+  }
+
+  @Override
+  public boolean containsEdge(Integer from, Integer to) {
+    if (!containsVertex(from) || to == null) return false;
+
+    for (int i = 0; i < degrees[from]; i++) {
+      if (targets[from][i] == to) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public Set<Integer> getNeighbors(Integer vertex) {
+    return new HashSet<>(getOutgoingNeighbors(vertex));
+  }
+
+  /**
+   * Retrieves all vertices currently present in the graph, as a live view.
+   */
+  @Override
+  public Set<Integer> getVertices() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Integer> iterator() {
+        return vertices.stream().iterator();
+      }
+
+      @Override
+      public int size() {
+        return vertexCount;
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return o instanceof Integer vertex && containsVertex(vertex.intValue());
+      }
+    };
+  }
+
+  @Override
+  public int getInDegree(Integer vertex) {
+    if (vertex == null) return 0;
+    int inDegree = 0;
+
+    for (int v = vertices.nextSetBit(0); v >= 0; v = vertices.nextSetBit(v + 1)) {
+      for (int i = 0; i < degrees[v]; i++) {
+        if (targets[v][i] == vertex) inDegree++;
+      }
+    }
+    return inDegree;
+  }
+
+  @Override
+  public int getOutDegree(Integer vertex) {
+    return vertex == null ? 0 : outDegree(vertex.intValue());
+  }
+
+  @Override
+  public List<E> getOutgoingEdges(Integer vertex) {
+    if (!containsVertex(vertex))
+      throw new IllegalArgumentException("Vertex " + vertex + " does not exist");
+
+    List<E> edges = new ArrayList<>(degrees[vertex]);
+    for (int i = 0; i < degrees[vertex]; i++) {
+      edges.add(edge(vertex, i));
+    }
+    return edges;
+  }
+
+  @Override
+  public void forEachOutgoing(Integer vertex, Consumer<? super E> action) {
+    forEachOutgoing(vertex, edge -> true, action);
+  }
+
+  @Override
+  public void forEachOutgoing(Integer vertex, Predicate<? super E> filter, Consumer<? super E> action) {
+    if (!containsVertex(vertex))
+      throw new IllegalArgumentException("Vertex " + vertex + " does not exist");
+
+    for (int i = 0; i < degrees[vertex]; i++) {
+      E edge = edge(vertex, i);
+      if (filter.test(edge)) action.accept(edge);
+    }
+  }
+
+  @Override
+  public Optional<E> findOutgoing(Integer vertex, Predicate<? super E> predicate) {
+    if (!containsVertex(vertex))
+      throw new IllegalArgumentException("Vertex " + vertex + " does not exist");
+
+    for (int i = 0; i < degrees[vertex]; i++) {
+      E edge = edge(vertex, i);
+      if (predicate.test(edge)) return Optional.of(edge);
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public List<Integer> getOutgoingNeighbors(Integer vertex) {
+    List<Integer> neighbors = new ArrayList<>();
+
+    if (containsVertex(vertex)) {
+      for (int i = 0; i < degrees[vertex]; i++) {
+        neighbors.add(targets[vertex][i]);
+      }
+    }
+    return neighbors;
+  }
+
+  @Override
+  public List<Integer> getOutgoingNeighbors(Integer vertex, Predicate<E> edgePredicate) {
+    if (!containsVertex(vertex))
+      throw new IllegalArgumentException("Vertex " + vertex + " does not exist");
+
+    List<Integer> neighbors = new ArrayList<>();
+    for (int i = 0; i < degrees[vertex]; i++) {
+      if (edgePredicate.test(edge(vertex, i))) neighbors.add(targets[vertex][i]);
+    }
+    return neighbors;
+  }
+
+  @Override
+  public List<Integer> getIncomingNeighbors(Integer vertex) {
+    List<Integer> neighbors = new ArrayList<>();
+
+    for (int v = vertices.nextSetBit(0); v >= 0; v = vertices.nextSetBit(v + 1)) {
+      for (int i = 0; i < degrees[v]; i++) {
+        if (targets[v][i] == vertex) neighbors.add(v);
+      }
+    }
+    return neighbors;
+  }
+
+  @Override
+  public boolean removeEdge(E edge) {
+    return removeEdge(edge.getSource(), edge.getTarget(), labelOf.apply(edge));
+  }
+
+  @Override
+  public void removeOutgoingEdgesIf(Integer vertex, Predicate<E> predicate) {
+    if (!containsVertex(vertex)) return;
+
+    int i = 0;
+    while (i < degrees[vertex]) {
+      if (predicate.test(edge(vertex, i))) removeAt(vertex, i);
+      else i++;
+    }
+  }
+
+  @Override
+  public Pair<Integer, Integer> getSize() {
+    return new Pair<>(vertexCount, edgeCount);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (obj == null || getClass() != obj.getClass()) return false;
+    IntDirectedGraph<?, ?> that = (IntDirectedGraph<?, ?>) obj;
+    if (edgeCount != that.edgeCount || !vertices.equals(that.vertices)) return false;
+
+    for (int v = vertices.nextSetBit(0); v >= 0; v = vertices.nextSetBit(v + 1)) {
+      if (degrees[v] != that.degrees[v]) return false;
+      for (int i = 0; i < degrees[v]; i++) {
+        if (that.indexOf(v, targets[v][i], labels[v][i]) == -1) return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = vertices.hashCode();
+
+    // Order-independent, as the edges of a vertex are not kept in insertion order
+    for (int v = vertices.nextSetBit(0); v >= 0; v = vertices.nextSetBit(v + 1)) {
+      for (int i = 0; i < degrees[v]; i++) {
+        hash += (v * 31 + targets[v][i]) * 31 + Objects.hashCode(labels[v][i]);
+      }
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+
+    for (int v = vertices.nextSetBit(0); v >= 0; v = vertices.nextSetBit(v + 1)) {
+      builder.append(v).append(" -> ");
+
+      for (int i = 0; i < degrees[v]; i++) {
+        if (i > 0) builder.append(", ");
+        builder.append(targets[v][i]);
+      }
+      builder.append("\n");
+    }
+    return builder.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private E edge(int source, int i) {
+    return edgeFactory.create(source, targets[source][i], (L) labels[source][i]);
+  }
+
+  private int indexOf(int source, int target, Object label) {
+    int[] index = indexes[source];
+    if (index == null) {
+      for (int i = 0; i < degrees[source]; i++) {
+        if (targets[source][i] == target && Objects.equals(labels[source][i], label)) return i;
+      }
+      return -1;
+    }
+
+    int mask = index.length - 1;
+    for (int slot = hash(target, label) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+      int i = index[slot] - 1;
+      if (targets[source][i] == target && Objects.equals(labels[source][i], label)) return i;
+    }
+    return -1;
+  }
+
+  private void removeAt(int source, int i) {
+    int last = degrees[source] - 1;
+    if (indexes[source] != null) {
+      unindexEdge(source, i);
+      if (last != i) indexes[source][slotOf(source, last)] = i + 1;
+    }
+
+    // Move the last edge into the hole
+    degrees[source] = last;
+    targets[source][i] = targets[source][last];
+    labels[source][i] = labels[source][last];
+    labels[source][last] = null;
+    edgeCount--;
+  }
+
+  private static int hash(int target, Object label) {
+    int hash = target * 31 + Objects.hashCode(label);
+    return hash ^ (hash >>> 16);
+  }
+
+  private void rebuildIndex(int source) {
+    int capacity = Integer.highestOneBit(Math.max(degrees[source], INDEX_THRESHOLD)) * 4;
+    indexes[source] = new int[capacity];
+    for (int i = 0; i < degrees[source]; i++) {
+      indexEdge(source, i);
+    }
+  }
+
+  private void indexEdge(int source, int i) {
+    int[] index = indexes[source];
+    // Keep the load factor at most one half
+    if (2 * degrees[source] > index.length) {
+      rebuildIndex(source);
+      return;
+    }
+
+    int mask = index.length - 1;
+    int slot = hash(targets[source][i], labels[source][i]) & mask;
+    while (index[slot] != 0) slot = (slot + 1) & mask;
+    index[slot] = i + 1;
+  }
+
+  private int slotOf(int source, int i) {
+    int[] index = indexes[source];
+    int mask = index.length - 1;
+    int slot = hash(targets[source][i], labels[source][i]) & mask;
+    while (index[slot] != i + 1) slot = (slot + 1) & mask;
+    return slot;
+  }
+
+  private void unindexEdge(int source, int i) {
+    int[] index = indexes[source];
+    int mask = index.length - 1;
+    int hole = slotOf(source, i);
+    index[hole] = 0;
+
+    // Shift back the entries of the probe run that can no longer be reached past the hole
+    for (int slot = (hole + 1) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+      int edge = index[slot] - 1;
+      int home = hash(targets[source][edge], labels[source][edge]) & mask;
+      if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+        index[hole] = index[slot];
+        index[slot] = 0;
+        hole = slot;
+      }
+    }
+  }
+
+  private void checkEdgeIndex(int vertex, int i) {
+    if (!containsVertex(vertex))
+      throw new IllegalArgumentException("Vertex " + vertex + " does not exist");
+    if (i < 0 || i >= degrees[vertex])
+      throw new IndexOutOfBoundsException("edge " + i + " of vertex " + vertex);
+  }
+
+  private void ensureCapacity(int vertex) {
+    if (vertex < degrees.length) return;
+
+    int capacity = Math.max(vertex + 1, 2 * degrees.length);
+    int previous = degrees.length;
+    targets = Arrays.copyOf(targets, capacity);
+    labels = Arrays.copyOf(labels, capacity);
+    degrees = Arrays.copyOf(degrees, capacity);
+    indexes = Arrays.copyOf(indexes, capacity);
+    for (int v = previous; v < capacity; v++) {
+      targets[v] = NO_TARGETS;
+      labels[v] = NO_LABELS;
+    }
+  }
+}
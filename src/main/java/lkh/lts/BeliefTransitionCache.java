@@ -0,0 +1,230 @@
+package lkh.lts;
+
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Memoised transitions between belief states (macrostates) of an LTS.
+ * A macrostate is a set of states. Macrostates are hash-consed as sorted arrays of state numbers
+ * and identified by a stable integer id, so the same set of states always gets the same id.
+ * The successor of a macrostate through an action is the union of the successors of its states, or
+ * {@link #NONE} if the action is not executable in some of them (the plan would not be strongly executable).
+ * Successors are kept in a bounded LRU cache keyed by (macrostate id, action), so the work is shared
+ * between every automaton construction and query over the same LTS.
+ * The interned macrostates are bounded too: a query may intern as many as it needs, but once there are more
+ * than the macrostate capacity, {@link #reclaim()} forgets all of them, so it must only be called between
+ * queries, when no macrostate id is in use.
+ * The LTS must not change while the cache is in use.
+ *
+ * @param <State> The type representing states in the LTS
+ * @param <Action> The type representing transition actions in the LTS
+ */
+public class BeliefTransitionCache<State, Action> {
+  /**
+   * Successor id returned when the action is not executable in every state of the macrostate
+   */
+  public static final int NONE = -1;
+  public static final int DEFAULT_CAPACITY = 1 << 20;
+  public static final int DEFAULT_MACROSTATE_CAPACITY = 1 << 20;
+
+  private final LTS<State, Action> lts;
+  private final LTSIndex<State, Action> index;
+  private final Map<Macrostate, Integer> macrostateIds = new HashMap<>();
+  private final List<Macrostate> macrostates = new ArrayList<>();
+  private final Map<Long, Integer> transitions;
+  private final int macrostateCapacity;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public BeliefTransitionCache(@NonNull LTS<State, Action> lts) {
+    this(lts, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param lts the LTS whose transitions are cached
+   * @param capacity the maximum number of cached transitions
+   */
+  public BeliefTransitionCache(@NonNull LTS<State, Action> lts, int capacity) {
+    this(lts, capacity, DEFAULT_MACROSTATE_CAPACITY);
+  }
+
+  /**
+   * @param lts the LTS whose transitions are cached
+   * @param capacity the maximum number of cached transitions
+   * @param macrostateCapacity the number of interned macrostates above which reclaim() forgets them
+   */
+  public BeliefTransitionCache(@NonNull LTS<State, Action> lts, int capacity, int macrostateCapacity) {
+    if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+    if (macrostateCapacity <= 0) throw new IllegalArgumentException("macrostateCapacity must be positive");
+
+    this.lts = lts;
+    this.macrostateCapacity = macrostateCapacity;
+    this.index = new LTSIndex<>(lts);
+    this.transitions = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+        if (size() <= capacity) return false;
+        evictions++;
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Get the id of the macrostate containing exactly the given states
+   * @param states a set of states of the LTS
+   * @return the id of the macrostate
+   */
+  public int intern(@NonNull Set<State> states) {
+    int[] ids = new int[states.size()];
+    int i = 0;
+    for (State state : states) {
+      ids[i++] = index.stateId(state);
+    }
+    Arrays.sort(ids);
+    return intern(ids);
+  }
+
+  /**
+   * Get the states of a macrostate
+   * @param macrostate the id of the macrostate
+   * @return a new set with the states of the macrostate
+   */
+  public Set<State> states(int macrostate) {
+    Set<State> result = new HashSet<>();
+    for (int id : macrostates.get(macrostate).states) {
+      result.add(index.state(id));
+    }
+    return result;
+  }
+
+  /**
+   * Return whether every state of the macrostate satisfies the predicate
+   * @param macrostate the id of the macrostate
+   * @param predicate the condition to check
+   * @return true if all the states of the macrostate satisfy the predicate
+   */
+  public boolean allMatch(int macrostate, Predicate<State> predicate) {
+    for (int id : macrostates.get(macrostate).states) {
+      if (!predicate.test(index.state(id))) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Get the macrostate reached from the given one by consuming the action
+   * @param macrostate the id of the source macrostate
+   * @param action the action to consume
+   * @return the id of the target macrostate, or NONE if some state of the source has no transitions for the action
+   */
+  public int successor(int macrostate, Action action) {
+    long key = ((long) macrostate << 32) | index.actionId(action);
+    Integer cached = transitions.get(key);
+    if (cached != null) {
+      hits++;
+      return cached;
+    }
+
+    misses++;
+    int successor = computeSuccessor(macrostates.get(macrostate), action);
+    transitions.put(key, successor);
+    return successor;
+  }
+
+  /**
+   * Forget every macrostate and cached transition if there are more macrostates than the capacity.
+   * The ids returned before are not valid after the macrostates are forgotten. The forgotten transitions
+   * count as evictions.
+   * @return true if the macrostates were forgotten
+   */
+  public boolean reclaim() {
+    if (macrostates.size() <= macrostateCapacity) return false;
+
+    evictions += transitions.size();
+    macrostates.clear();
+    macrostateIds.clear();
+    transitions.clear();
+    return true;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Get the number of cached transitions that were dropped, by the LRU bound or by reclaim()
+   * @return the number of evicted transitions
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Get the number of distinct macrostates seen so far
+   * @return the number of interned macrostates
+   */
+  public int macrostateCount() {
+    return macrostates.size();
+  }
+
+  public LTSIndex<State, Action> getIndex() {
+    return index;
+  }
+
+  private int computeSuccessor(Macrostate source, Action action) {
+    BitSet targets = new BitSet(index.stateCount());
+
+    for (int id : source.states) {
+      Set<State> stateTargets = lts.targets(index.state(id), action);
+      if (stateTargets.isEmpty()) return NONE;
+
+      for (State target : stateTargets) {
+        targets.set(index.stateId(target));
+      }
+    }
+
+    return intern(targets.stream().toArray());
+  }
+
+  private int intern(int[] sortedStates) {
+    Macrostate macrostate = new Macrostate(sortedStates);
+    Integer id = macrostateIds.get(macrostate);
+    if (id != null) return id;
+
+    macrostateIds.put(macrostate, macrostates.size());
+    macrostates.add(macrostate);
+    return macrostates.size() - 1;
+  }
+
+  /**
+   * A set of states represented as a sorted array of state numbers, with a precomputed hash.
+   */
+  private static final class Macrostate {
+    private final int[] states;
+    private final int hash;
+
+    Macrostate(int[] states) {
+      this.states = states;
+      this.hash = Arrays.hashCode(states);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof Macrostate other)) return false;
+      return hash == other.hash && Arrays.equals(states, other.states);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package lkh.lts;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Quotient of an LTS by strong bisimulation.
+ * Two states are bisimilar when they have the same labels and, for every action, each transition of one is
+ * matched by a transition of the other to a bisimilar state. KH formulas can't tell bisimilar states apart,
+ * so they can be checked on the quotient, whose states are the equivalence classes (blocks).
+ * The classes are computed by partition refinement: states start grouped by their labels, and every block
+ * is used as a splitter, separating the states that have a transition by some action into it from those
+ * that don't. The halves of every split block become splitters again, until the partition is stable.
+ * Each split takes time proportional to the transitions into the splitter.
+ *
+ * @param <State> The type representing states in the LTS
+ * @param <Action> The type representing transition actions in the LTS
+ */
+public class BisimulationQuotient<State, Action> {
+  private final LTSIndex<State, Action> index;
+  private final int[] blockOf;
+  private final List<Set<State>> blocks = new ArrayList<>();
+  private final LTS<Integer, Action> quotient = new HashMapLTS<>();
+
+  // Refinable partition: the states of block b are elements[start[b]..end[b]), the marked ones come first
+  private int[] elements;
+  private int[] position;
+  private int[] start;
+  private int[] end;
+  private int[] marked;
+  private int blockCount;
+
+  public BisimulationQuotient(@NonNull LTS<State, Action> lts) {
+    this.index = new LTSIndex<>(lts);
+    int n = index.stateCount();
+    this.blockOf = new int[n];
+
+    // Incoming transitions of each state in compressed rows, as (source, action) pairs
+    int[] offsets = new int[n + 1];
+    for (int source = 0; source < n; source++) {
+      State state = index.state(source);
+      for (Action action : lts.getActions(state)) {
+        for (State target : lts.targets(state, action)) {
+          offsets[index.stateId(target) + 1]++;
+        }
+      }
+    }
+    for (int i = 0; i < n; i++) offsets[i + 1] += offsets[i];
+    int[] sources = new int[offsets[n]];
+    int[] actions = new int[offsets[n]];
+    int[] fill = Arrays.copyOf(offsets, n);
+    for (int source = 0; source < n; source++) {
+      State state = index.state(source);
+      for (Action action : lts.getActions(state)) {
+        int actionId = index.actionId(action);
+        for (State target : lts.targets(state, action)) {
+          int i = fill[index.stateId(target)]++;
+          sources[i] = source;
+          actions[i] = actionId;
+        }
+      }
+    }
+
+    initialPartition(lts, n);
+    refine(offsets, sources, actions);
+    buildQuotient(lts);
+  }
+
+  /**
+   * Get the quotient LTS. Its states are the block numbers, labelled as their states, with a transition by an
+   * action between two blocks when the states of the first have one to states of the second.
+   * @return the quotient LTS
+   */
+  public LTS<Integer, Action> getQuotient() {
+    return quotient;
+  }
+
+  /**
+   * Get the block of a state
+   * @param state a state of the original LTS
+   * @return the number of its block, which is its state in the quotient
+   * @throws IllegalArgumentException if the state is not in the original LTS
+   */
+  public int blockOf(State state) {
+    return blockOf[index.stateId(state)];
+  }
+
+  /**
+   * Get the states of a block
+   * @param block a block number
+   * @return the states of the original LTS in the block
+   */
+  public Set<State> getBlock(int block) {
+    return Collections.unmodifiableSet(blocks.get(block));
+  }
+
+  public int getBlockCount() {
+    return blocks.size();
+  }
+
+  private void initialPartition(LTS<State, Action> lts, int n) {
+    Map<Set<String>, List<Integer>> byLabels = new LinkedHashMap<>();
+    for (int state = 0; state < n; state++) {
+      byLabels.computeIfAbsent(lts.getLabels(index.state(state)), k -> new ArrayList<>()).add(state);
+    }
+
+    elements = new int[n];
+    position = new int[n];
+    start = new int[n];
+    end = new int[n];
+    marked = new int[n];
+    int next = 0;
+    for (List<Integer> group : byLabels.values()) {
+      int block = blockCount++;
+      start[block] = marked[block] = next;
+      for (int state : group) {
+        elements[next] = state;
+        position[state] = next++;
+        blockOf[state] = block;
+      }
+      end[block] = next;
+    }
+  }
+
+  private void refine(int[] offsets, int[] sources, int[] actions) {
+    Deque<Integer> splitters = new ArrayDeque<>();
+    boolean[] pending = new boolean[Math.max(1, elements.length)];
+    for (int block = 0; block < blockCount; block++) {
+      splitters.add(block);
+      pending[block] = true;
+    }
+
+    Map<Integer, List<Integer>> predecessorsByAction = new HashMap<>();
+    List<Integer> touched = new ArrayList<>();
+
+    while (!splitters.isEmpty()) {
+      int splitter = splitters.remove();
+      pending[splitter] = false;
+
+      // The predecessors of the splitter, grouped by action, are collected before any block is split
+      predecessorsByAction.clear();
+      for (int i = start[splitter]; i < end[splitter]; i++) {
+        int target = elements[i];
+        for (int j = offsets[target]; j < offsets[target + 1]; j++) {
+          predecessorsByAction.computeIfAbsent(actions[j], k -> new ArrayList<>()).add(sources[j]);
+        }
+      }
+
+      for (List<Integer> predecessors : predecessorsByAction.values()) {
+        for (int state : predecessors) {
+          int block = blockOf[state];
+          if (position[state] < marked[block]) continue;
+
+          if (marked[block] == start[block]) touched.add(block);
+          swap(position[state], marked[block]++);
+        }
+
+        for (int block : touched) {
+          if (marked[block] == end[block]) {
+            // Every state of the block has a transition into the splitter
+            marked[block] = start[block];
+            continue;
+          }
+
+          // The marked states form a new block
+          int newBlock = blockCount++;
+          start[newBlock] = marked[newBlock] = start[block];
+          end[newBlock] = marked[block];
+          start[block] = marked[block];
+          for (int i = start[newBlock]; i < end[newBlock]; i++) {
+            blockOf[elements[i]] = newBlock;
+          }
+
+          for (int half : new int[]{block, newBlock}) {
+            if (!pending[half]) {
+              pending[half] = true;
+              splitters.add(half);
+            }
+          }
+        }
+        touched.clear();
+      }
+    }
+  }
+
+  private void swap(int i, int j) {
+    int a = elements[i];
+    int b = elements[j];
+    elements[i] = b;
+    elements[j] = a;
+    position[b] = i;
+    position[a] = j;
+  }
+
+  /**
+   * Renumber the blocks densely and build the quotient from one representative of each block,
+   * which is enough because all the states of a block have the same transitions between blocks.
+   */
+  private void buildQuotient(LTS<State, Action> lts) {
+    int[] numbers = new int[blockCount];
+    Arrays.fill(numbers, -1);
+    for (int state = 0; state < blockOf.length; state++) {
+      int block = blockOf[state];
+      if (numbers[block] == -1) {
+        numbers[block] = blocks.size();
+        blocks.add(new HashSet<>());
+      }
+      blockOf[state] = numbers[block];
+      blocks.get(blockOf[state]).add(index.state(state));
+    }
+
+    for (int block = 0; block < blocks.size(); block++) {
+      State representative = blocks.get(block).iterator().next();
+      quotient.addState(block, lts.getLabels(representative));
+    }
+    for (int block = 0; block < blocks.size(); block++) {
+      State representative = blocks.get(block).iterator().next();
+      for (Action action : lts.getActions(representative)) {
+        for (State target : lts.targets(representative, action)) {
+          quotient.addTransition(block, blockOf(target), action);
+        }
+      }
+    }
+  }
+}
@@ -3,12 +3,12 @@ package lkh.lts;
 import lkh.graph.DirectedGraph;
 import lkh.graph.HashMapDirectedGraph;
 import lombok.EqualsAndHashCode;
+import lkh.utils.IndexedSet;
 import lkh.utils.Pair;
 import logger.Logger;
 import lombok.NonNull;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * HashMap-based implementation of the Labeled Transition System (LTS) interface.
@@ -32,30 +32,53 @@ public class HashMapLTS<State, Action> implements LTS<State, Action> {
     graph = new HashMapDirectedGraph<>(logger);
   }
 
+  /**
+   * Create an LTS backed by the given graph, for example an IntDirectedGraph for Integer states.
+   * @param graph an empty directed graph to store the transitions
+   */
+  public HashMapLTS(@NonNull DirectedGraph<State, LTSEdge<State, Action>> graph) {
+    if (!graph.getVertices().isEmpty()) throw new IllegalArgumentException("graph must be empty");
+
+    this.graph = graph;
+  }
+
   @Override
   public void addState(State state) {
     graph.addVertex(state);
     labelMap.put(state, new HashSet<>());
   }
 
+  /**
+   * Add a state with the given labels. An IndexedSet of labels is immutable, so it is kept as it is and
+   * shares its universe with the other states; any other set is copied.
+   */
   @Override
   public void addState(State state, @NonNull Set<String> labels) {
-    addState(state);
-    labelMap.put(state, new HashSet<>(labels));
+    graph.addVertex(state);
+    labelMap.put(state, labels instanceof IndexedSet<String> ? labels : new HashSet<>(labels));
   }
 
   @Override
   public void addLabel(@NonNull State state, @NonNull String label) {
     if (!getStates().contains(state)) throw new IllegalArgumentException("state not in LTS");
 
-    labelMap.get(state).add(label);
+    mutableLabels(state).add(label);
   }
 
   @Override
   public void addLabels(@NonNull State state, @NonNull Set<String> labels) {
     if (!getStates().contains(state)) throw new IllegalArgumentException("state not in LTS");
 
-    labelMap.get(state).addAll(labels);
+    mutableLabels(state).addAll(labels);
+  }
+
+  private Set<String> mutableLabels(State state) {
+    Set<String> labels = labelMap.get(state);
+    if (labels instanceof IndexedSet<String>) {
+      labels = new HashSet<>(labels);
+      labelMap.put(state, labels);
+    }
+    return labels;
   }
 
   @Override
@@ -83,7 +106,9 @@ public class HashMapLTS<State, Action> implements LTS<State, Action> {
   @Override
   public Set<Action> getActions(State state) {
     if (!containsState(state)) throw new IllegalArgumentException("state not in LTS");
-    return graph.getOutgoingEdges(state).stream().map(edge -> edge.getAction()).collect(Collectors.toSet());
+    Set<Action> stateActions = new HashSet<>();
+    graph.forEachOutgoing(state, edge -> stateActions.add(edge.getAction()));
+    return stateActions;
   }
 
   @Override
@@ -96,10 +121,9 @@ public class HashMapLTS<State, Action> implements LTS<State, Action> {
     if (!containsState(from))
       throw new IllegalArgumentException("lts doesn't contain the given state");
 
-    return graph.getOutgoingEdges(from).stream()
-        .filter(edge -> edge.getAction().equals(action))
-        .map(LTSEdge::getTarget)
-        .collect(Collectors.toSet());
+    Set<State> targets = new HashSet<>();
+    graph.forEachOutgoing(from, edge -> edge.getAction().equals(action), edge -> targets.add(edge.getTarget()));
+    return targets;
   }
 
   @Override
@@ -0,0 +1,81 @@
+package lkh.lts;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Dense integer numbering of the states and actions of an LTS.
+ * States and actions are numbered from 0 in iteration order when the index is created,
+ * so the index reflects the LTS at that moment and must be rebuilt if the LTS changes.
+ *
+ * @param <State> The type representing states in the LTS
+ * @param <Action> The type representing transition actions in the LTS
+ */
+public class LTSIndex<State, Action> {
+  private final Map<State, Integer> stateIds = new HashMap<>();
+  private final List<State> states = new ArrayList<>();
+  private final Map<Action, Integer> actionIds = new HashMap<>();
+  private final List<Action> actions = new ArrayList<>();
+
+  public LTSIndex(@NonNull LTS<State, Action> lts) {
+    for (State state : lts.getStates()) {
+      stateIds.put(state, states.size());
+      states.add(state);
+    }
+    for (Action action : lts.getActions()) {
+      actionIds.put(action, actions.size());
+      actions.add(action);
+    }
+  }
+
+  /**
+   * Get the number of the given state
+   * @param state a state of the LTS
+   * @return the number of the state
+   * @throws IllegalArgumentException if the state is not indexed
+   */
+  public int stateId(State state) {
+    Integer id = stateIds.get(state);
+    if (id == null) throw new IllegalArgumentException("state not in index");
+    return id;
+  }
+
+  /**
+   * Get the state with the given number
+   * @param id a number between 0 and stateCount() - 1
+   * @return the state
+   */
+  public State state(int id) {
+    return states.get(id);
+  }
+
+  /**
+   * Get the number of the given action
+   * @param action an action of the LTS
+   * @return the number of the action
+   * @throws IllegalArgumentException if the action is not indexed
+   */
+  public int actionId(Action action) {
+    Integer id = actionIds.get(action);
+    if (id == null) throw new IllegalArgumentException("action not in index");
+    return id;
+  }
+
+  /**
+   * Get the action with the given number
+   * @param id a number between 0 and actionCount() - 1
+   * @return the action
+   */
+  public Action action(int id) {
+    return actions.get(id);
+  }
+
+  public int stateCount() {
+    return states.size();
+  }
+
+  public int actionCount() {
+    return actions.size();
+  }
+}
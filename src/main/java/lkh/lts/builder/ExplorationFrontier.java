@@ -0,0 +1,119 @@
+package lkh.lts.builder;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import lkh.planning.Action;
+import lkh.planning.Condition;
+import lkh.planning.Fluent;
+import lkh.planning.State;
+
+/**
+ * States waiting to be expanded by the PDDL builder, in the order given by an ExplorationStrategy.
+ * States beyond the depth bound and goal states of a goal-directed exploration are discovered but never
+ * returned by next(). After a goal-directed exploration finds a goal state, next() only returns the states
+ * that are no further from the goal than the one whose expansion found it.
+ *
+ * @param <S> the type of the states
+ */
+final class ExplorationFrontier<S extends State> {
+  /**
+   * A state to expand, with its number in the LTS, the action that reached it, its depth and the number
+   * of goal fluents it doesn't satisfy
+   */
+  record Node<S>(int id, S state, Action action, int depth, int distance) {}
+
+  private final ExplorationStrategy strategy;
+  private final Condition goal;
+  private final Queue<Node<S>> nodes;
+  // Smallest depth each state was added at, to skip nodes made stale by a shorter path
+  private int[] depths = new int[16];
+  private boolean goalReached;
+  // Goal distance of the last node returned by next(), and the largest one still expanded after reaching a goal
+  private int lastDistance = 0;
+  private int goalBound = Integer.MAX_VALUE;
+
+  ExplorationFrontier(ExplorationStrategy strategy, Condition goal) {
+    this.strategy = strategy;
+    this.goal = goal;
+    this.nodes = switch (strategy.kind()) {
+      case DEPTH_FIRST -> Collections.asLifoQueue(new ArrayDeque<>());
+      case GOAL_DIRECTED -> new PriorityQueue<>(Comparator.<Node<S>>comparingInt(Node::distance).thenComparingInt(Node::id));
+      default -> new ArrayDeque<>();
+    };
+    Arrays.fill(depths, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Add a state that was discovered, or reopened
+   * @param id the number of the state in the LTS
+   * @param state the state
+   * @param action the action that reached it, or null for the initial state
+   * @param depth the length of the path that reached it
+   */
+  void add(int id, S state, Action action, int depth) {
+    if (id >= depths.length) {
+      int length = depths.length;
+      depths = Arrays.copyOf(depths, Math.max(2 * length, id + 1));
+      Arrays.fill(depths, length, depths.length, Integer.MAX_VALUE);
+    }
+    depths[id] = Math.min(depths[id], depth);
+
+    int distance = 0;
+    if (strategy.kind() == ExplorationStrategy.Kind.GOAL_DIRECTED) {
+      distance = goalDistance(state);
+      if (distance == 0) {
+        if (!goalReached) goalBound = lastDistance;
+        goalReached = true;
+        return;
+      }
+    }
+    if (depth < strategy.bound()) nodes.add(new Node<>(id, state, action, depth, distance));
+  }
+
+  /**
+   * Check if a state that was already discovered has to be added again, because it was reached by a
+   * shorter path and a depth-first exploration may have cut off some of its successors
+   * @param id the number of the state
+   * @param depth the length of the new path
+   * @return true if the state has to be added again
+   */
+  boolean reopens(int id, int depth) {
+    return strategy.kind() == ExplorationStrategy.Kind.DEPTH_FIRST
+        && strategy.bound() != Integer.MAX_VALUE
+        && depth < depths[id];
+  }
+
+  /**
+   * Take the next state to expand
+   * @return the node of the state, or null if there are no more states to expand
+   */
+  Node<S> next() {
+    Node<S> node = nodes.poll();
+    while (node != null && node.depth() > depths[node.id()]) {
+      node = nodes.poll();
+    }
+    if (node != null && goalReached && node.distance() > goalBound) {
+      nodes.clear();
+      return null;
+    }
+    if (node == null) return null;
+
+    lastDistance = node.distance();
+    return node;
+  }
+
+  private int goalDistance(State state) {
+    int distance = 0;
+    for (Fluent fluent : goal.getPositiveFluents()) {
+      if (!state.getFluents().contains(fluent)) distance++;
+    }
+    for (Fluent fluent : goal.getNegativeFluents()) {
+      if (state.getFluents().contains(fluent)) distance++;
+    }
+    return distance;
+  }
+}
@@ -0,0 +1,76 @@
+package lkh.lts.builder;
+
+/**
+ * Order and extent of the exploration of a state space by an LTSBuilder.
+ * The breadth-first strategy and the unbounded depth-first one build the whole LTS. The others build a
+ * fragment of it, in which the states that were not expanded have no transitions, so formulas are checked on
+ * that fragment.
+ *
+ * @param kind the kind of exploration
+ * @param bound the depth bound, for the kinds that have one
+ */
+public record ExplorationStrategy(Kind kind, int bound) {
+  public enum Kind {
+    /** Breadth-first exploration of the whole state space */
+    BREADTH_FIRST,
+    /**
+     * Depth-first exploration that only expands the states at depth less than the bound.
+     * The stack holds the successors of the states on the current path, so its size is bounded by the
+     * branching factor times the bound. A state reached again by a shorter path is expanded again.
+     */
+    DEPTH_FIRST,
+    /** Breadth-first exploration that only expands the states at depth less than the bound */
+    DEPTH_BOUNDED,
+    /**
+     * Best-first exploration by the number of goal fluents a state doesn't satisfy. Once a goal state is
+     * found, the states as close to the goal as the one that reached it are still expanded, then the
+     * exploration stops. Goal states are not expanded, and the fragment contains a plan from the initial state
+     * to the goal if there is one. Other states of the fragment may have successors outside of it, so it is
+     * only meant for formulas about plans from the initial state.
+     */
+    GOAL_DIRECTED
+  }
+
+  /**
+   * @throws IllegalArgumentException if the bound is negative, if a breadth-first or goal-directed strategy
+   * has a bound other than Integer.MAX_VALUE, or if a depth-bounded one has Integer.MAX_VALUE as bound
+   */
+  public ExplorationStrategy {
+    if (kind == null) throw new IllegalArgumentException("kind must not be null");
+    if (bound < 0) throw new IllegalArgumentException("bound must be non-negative");
+    if ((kind == Kind.BREADTH_FIRST || kind == Kind.GOAL_DIRECTED) && bound != Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(kind + " exploration can't have a bound");
+    }
+    if (kind == Kind.DEPTH_BOUNDED && bound == Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("DEPTH_BOUNDED exploration needs a finite bound");
+    }
+  }
+
+  public static ExplorationStrategy breadthFirst() {
+    return new ExplorationStrategy(Kind.BREADTH_FIRST, Integer.MAX_VALUE);
+  }
+
+  public static ExplorationStrategy depthFirst() {
+    return depthFirst(Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param maxDepth the depth of the deepest states that are discovered
+   * @return a depth-first strategy
+   */
+  public static ExplorationStrategy depthFirst(int maxDepth) {
+    return new ExplorationStrategy(Kind.DEPTH_FIRST, maxDepth);
+  }
+
+  /**
+   * @param maxDepth the depth of the deepest states that are discovered
+   * @return a depth-bounded breadth-first strategy
+   */
+  public static ExplorationStrategy depthBounded(int maxDepth) {
+    return new ExplorationStrategy(Kind.DEPTH_BOUNDED, maxDepth);
+  }
+
+  public static ExplorationStrategy goalDirected() {
+    return new ExplorationStrategy(Kind.GOAL_DIRECTED, Integer.MAX_VALUE);
+  }
+}
@@ -20,4 +20,11 @@ public interface LTSBuilder {
      * @return A fully constructed LTS with Integer states and String actions
      */
     LTS<Integer, String> buildLTS();
+
+    /**
+     * Sets the order in which states are explored, and which of them are expanded.
+     *
+     * @param strategy The exploration strategy, breadth-first by default
+     */
+    void setExplorationStrategy(ExplorationStrategy strategy);
 }
@@ -6,26 +6,96 @@ import lkh.expression.Expression;
 import lkh.planning.Action;
 import lkh.planning.Condition;
 import lkh.planning.Fluent;
+import lkh.planning.IncrementalState;
 import lkh.planning.Problem;
 import lkh.planning.State;
 import lkh.planning.pddl4j.Pddl4jProblem;
+import lkh.por.ProjectableProblem;
+import lkh.por.RelevanceAnalysis;
 import lkh.por.StratifiedReducer;
+import lkh.por.SymmetricProblem;
+import lkh.utils.FingerprintIndex;
+import lkh.utils.HashedIndex;
+import lkh.utils.IndexedSet;
 import lkh.utils.Pair;
-import lombok.Setter;
+import lombok.NonNull;
 
 import java.io.FileNotFoundException;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 public class PDDL implements LTSBuilder {
   private LTS<Integer, String> lts;
   private Problem problem;
-  @Setter
   private boolean reduce;
+  /**
+   * Merge successors with the representative of their orbit under the symmetries of the problem.
+   * A transition is redirected to the representative only when the image of its action under the symmetry
+   * leads there from the same state, and it is relabelled with that action, so every transition of the
+   * reduced LTS is a transition of the problem and its witnesses are executable plans. Otherwise the successor
+   * is kept as it is, so an orbit may keep several states (88 states become 72 on gripper). Every reachable orbit
+   * keeps at least one state, with its own labels, so the formulas that the symmetries leave unchanged, like
+   * the initial and goal expressions of the problem, keep their truth value in the states that are kept.
+   * Knowing-how formulas only range over the kept states. The query, when set, must be left unchanged by the
+   * symmetries (see preserves()).
+   */
+  private boolean symmetry;
+  /**
+   * Keep only the fluents that can influence the propositions of the query, and the actions that change them.
+   * States that differ only in the other fluents are merged, and formulas over the propositions of the query
+   * keep their truth value. Without a query, the fluents of the goal and of the initial state are kept.
+   */
+  private boolean relevance;
+  private Expression query;
+  /**
+   * Keep only the 64-bit fingerprints of the visited states, and each state only until it is expanded.
+   * States with the same fingerprint are merged without comparing them, which is very unlikely to happen
+   * by accident but can't be ruled out. The labels of the states are stored as bitsets over the names of the
+   * fluents. Can't be combined with the other reductions, and needs a problem with incremental states.
+   */
+  private boolean hashCompaction;
+  private ExplorationStrategy explorationStrategy = ExplorationStrategy.breadthFirst();
 
   public PDDL(String domainFilename, String problemFilename) throws FileNotFoundException {
     problem = new Pddl4jProblem(domainFilename, problemFilename);
   }
 
+  /**
+   * Set the query that the reductions must preserve. The LTS is built again on the next call to buildLTS().
+   * @param query the expression to check over the LTS, or null to preserve the initial and goal expressions
+   */
+  public void setQuery(Expression query) {
+    this.query = query;
+    lts = null;
+  }
+
+  // Like the query, the settings below change the LTS, so it is built again on the next call to buildLTS()
+  public void setReduce(boolean reduce) {
+    this.reduce = reduce;
+    lts = null;
+  }
+
+  public void setSymmetry(boolean symmetry) {
+    this.symmetry = symmetry;
+    lts = null;
+  }
+
+  public void setRelevance(boolean relevance) {
+    this.relevance = relevance;
+    lts = null;
+  }
+
+  public void setHashCompaction(boolean hashCompaction) {
+    this.hashCompaction = hashCompaction;
+    lts = null;
+  }
+
+  @Override
+  public void setExplorationStrategy(@NonNull ExplorationStrategy explorationStrategy) {
+    this.explorationStrategy = explorationStrategy;
+    lts = null;
+  }
+
   public LTS<Integer, String> buildLTS() {
     if (lts == null)
       lts = buildLTS(problem);
@@ -42,6 +112,23 @@ public class PDDL implements LTSBuilder {
     return Expression.and(props);
   }
 
+  /**
+   * Return whether the reductions in use keep the truth value of an expression, so it can be checked over the
+   * built LTS. With symmetry reduction, the expression must be left unchanged by the symmetries of the problem,
+   * and with relevance analysis, its propositions must name fluents that were kept.
+   * @param expression a KH-Logic expression over the fluents of the problem
+   * @return false if the reduced LTS may give a different result for the expression than the full one
+   */
+  public boolean preserves(@NonNull Expression expression) {
+    if (symmetry && !symmetricProblem(problem).isInvariant(expression)) return false;
+    if (!relevance) return true;
+
+    Set<String> relevantFluents = new HashSet<>();
+    new RelevanceAnalysis(problem, relevantPropositions(problem)).getRelevantFluents()
+        .forEach(fluent -> relevantFluents.add(fluent.toString()));
+    return relevantFluents.containsAll(RelevanceAnalysis.propositions(expression));
+  }
+
   public Expression getGoalExpression() {
     Set<String> fluentsSet = new HashSet<>();
     Condition goal = problem.getGoalCondition();
@@ -58,51 +145,183 @@ public class PDDL implements LTSBuilder {
   }
 
   private LTS<Integer, String> buildLTS(Problem problem) {
+    if (hashCompaction) {
+      if (reduce || symmetry || relevance) {
+        throw new IllegalStateException("Hash compaction can't be combined with the other reductions");
+      }
+      if (!(problem.getInitialState() instanceof IncrementalState init)) {
+        throw new IllegalStateException("Hash compaction needs a problem with incremental states");
+      }
+      return buildCompactedLTS(problem, init);
+    }
+    if (!reduce && !symmetry && !relevance && problem.getInitialState() instanceof IncrementalState init) {
+      return buildLTS(problem, init);
+    }
+
+    if (symmetry && query != null && !symmetricProblem(problem).isInvariant(query)) {
+      throw new IllegalArgumentException("Query is not invariant under the symmetries of the problem: " + query);
+    }
+
     LTS<Integer,String> lts = new HashMapLTS<>();
-    State init = problem.getInitialState();
+    Collection<? extends Action> actions = problem.getActions();
+    UnaryOperator<State> projection = UnaryOperator.identity();
+    if (relevance) {
+      RelevanceAnalysis analysis = new RelevanceAnalysis(problem, relevantPropositions(problem));
+      actions = new LinkedHashSet<>(analysis.getRelevantActions());
+      projection = projection(problem, analysis.getRelevantFluents());
+    }
+    State init = projection.apply(problem.getInitialState());
+    if (symmetry) init = symmetricProblem(problem).canonicalState(init).state();
 
-    Queue<Pair<Action, State>> unvisitedStates = new LinkedList<>();
-    unvisitedStates.add(new Pair<>(null, init));
+    ExplorationFrontier<State> frontier = new ExplorationFrontier<>(explorationStrategy, problem.getGoalCondition());
     Map<State, Integer> indexMap = new HashMap<>();
     indexMap.put(init, 0);
+    lts.addState(0, labels(init, problem));
+    frontier.add(0, init, null, 0);
 
-    while (!unvisitedStates.isEmpty()) {
-      Pair<Action, State> pair = unvisitedStates.poll();
-      State state = pair.value();
-      Action action = pair.key();
-
-      lts.addState(indexMap.get(state), labels(state, problem));
+    for (ExplorationFrontier.Node<State> node = frontier.next(); node != null; node = frontier.next()) {
+      State state = node.state();
+      int depth = node.depth() + 1;
 
       Set<Pair<Action, State>> nextStates;
       if (reduce) {
         StratifiedReducer por = new StratifiedReducer(problem);
-        nextStates = por.stratifiedExpansion(action, state);
+        nextStates = por.stratifiedExpansion(node.action(), state);
       } else {
-        nextStates = defaultExpand(state);
+        nextStates = defaultExpand(state, actions);
       }
 
       for (Pair<Action, State> nextPair : nextStates) {
-        State nextState = nextPair.value();
         Action nextAction = nextPair.key();
+        if (relevance && !actions.contains(nextAction)) continue;
+
+        State nextState = projection.apply(nextPair.value());
+        if (symmetry) {
+          Pair<Action, State> transition = representativeTransition(state, nextAction, nextState, actions, projection);
+          nextAction = transition.key();
+          nextState = transition.value();
+        }
 
-        if (!indexMap.containsKey(nextState)) {
-          indexMap.put(nextState, indexMap.size());
-          unvisitedStates.add(nextPair);
+        Integer target = indexMap.get(nextState);
+        if (target == null) {
+          target = indexMap.size();
+          indexMap.put(nextState, target);
+          lts.addState(target, labels(nextState, problem));
+          frontier.add(target, nextState, nextAction, depth);
+        } else if (frontier.reopens(target, depth)) {
+          frontier.add(target, nextState, nextAction, depth);
         }
-        lts.addTransition(
-            indexMap.get(state),
-            indexMap.get(nextState),
-            nextAction.getName());
+        lts.addTransition(node.id(), target, nextAction.getName());
       }
     }
 
     return lts;
   }
 
-  private Set<Pair<Action, State>> defaultExpand(State state) {
+  /**
+   * Exploration that looks each successor up by its hash, computed from the hash of its parent and the
+   * effects of the action, so only the successors that were not seen before are built.
+   */
+  private LTS<Integer, String> buildLTS(Problem problem, IncrementalState init) {
+    LTS<Integer, String> lts = new HashMapLTS<>();
+    ExplorationFrontier<IncrementalState> frontier = new ExplorationFrontier<>(explorationStrategy, problem.getGoalCondition());
+    HashedIndex<IncrementalState> index = new HashedIndex<>();
+    index.add(init.longHash(), init);
+    lts.addState(0, labels(init, problem));
+    frontier.add(0, init, null, 0);
+
+    for (ExplorationFrontier.Node<IncrementalState> node = frontier.next(); node != null; node = frontier.next()) {
+      IncrementalState state = node.state();
+      int depth = node.depth() + 1;
+
+      for (Action action : problem.getActions()) {
+        if (!action.isApplicable(state)) continue;
+
+        long hash = state.successorHash(action);
+        int target = index.find(hash, candidate -> state.successorEquals(action, candidate));
+        if (target == -1) {
+          IncrementalState nextState = state.copy();
+          nextState.apply(action);
+          target = index.add(hash, nextState);
+          lts.addState(target, labels(nextState, problem));
+          frontier.add(target, nextState, action, depth);
+        } else if (frontier.reopens(target, depth)) {
+          frontier.add(target, index.get(target), action, depth);
+        }
+        lts.addTransition(node.id(), target, action.getName());
+      }
+    }
+
+    return lts;
+  }
+
+  /**
+   * Exploration that only remembers the fingerprints of the visited states.
+   * The labels of each state are stored as a bitset over the names of the fluents of the problem.
+   */
+  private LTS<Integer, String> buildCompactedLTS(Problem problem, IncrementalState init) {
+    LTS<Integer, String> lts = new HashMapLTS<>();
+    ExplorationFrontier<IncrementalState> frontier = new ExplorationFrontier<>(explorationStrategy, problem.getGoalCondition());
+    FingerprintIndex visited = new FingerprintIndex();
+    IndexedSet.Universe<String> fluentNames = new IndexedSet.Universe<>(
+        problem.getFluents().stream().map(Fluent::toString).toList());
+    visited.add(init.longHash());
+    lts.addState(0, compactLabels(init, fluentNames));
+    frontier.add(0, init, null, 0);
+
+    for (ExplorationFrontier.Node<IncrementalState> node = frontier.next(); node != null; node = frontier.next()) {
+      IncrementalState state = node.state();
+      int depth = node.depth() + 1;
+
+      for (Action action : problem.getActions()) {
+        if (!action.isApplicable(state)) continue;
+
+        long hash = state.successorHash(action);
+        int target = visited.find(hash);
+        if (target == -1 || frontier.reopens(target, depth)) {
+          IncrementalState nextState = state.copy();
+          nextState.apply(action);
+          if (target == -1) {
+            target = visited.add(hash);
+            lts.addState(target, compactLabels(nextState, fluentNames));
+          }
+          frontier.add(target, nextState, action, depth);
+        }
+        lts.addTransition(node.id(), target, action.getName());
+      }
+    }
+
+    return lts;
+  }
+
+  /**
+   * Replace a transition by one that reaches the representative of the orbit of its target, labelled with
+   * the image of its action under the symmetry that maps the target to the representative. The symmetry must
+   * leave the source unchanged for that to be a transition of the problem, so the representative under the
+   * whole group is tried first, then the one under the symmetries that look like the identity on the source.
+   * @return the new transition, or the given one if neither symmetry leaves the source unchanged
+   */
+  private Pair<Action, State> representativeTransition(State state, Action action, State nextState,
+                                                       Collection<? extends Action> actions,
+                                                       UnaryOperator<State> projection) {
+    SymmetricProblem symmetricProblem = symmetricProblem(problem);
+    for (SymmetricProblem.Representative representative : List.of(symmetricProblem.canonicalState(nextState),
+        symmetricProblem.canonicalState(nextState, state))) {
+      if (representative.state() == nextState) break;
+
+      Action image = representative.symmetry().apply(action);
+      if ((!relevance || actions.contains(image)) && image.isApplicable(state)
+          && successor(state, image, projection).equals(representative.state())) {
+        return new Pair<>(image, representative.state());
+      }
+    }
+    return new Pair<>(action, nextState);
+  }
+
+  private Set<Pair<Action, State>> defaultExpand(State state, Collection<? extends Action> actions) {
     Set<Pair<Action, State>> result = new HashSet<>();
 
-    for (Action action : problem.getActions().stream().filter(candidate -> candidate.isApplicable(state)).toList()) {
+    for (Action action : actions.stream().filter(candidate -> candidate.isApplicable(state)).toList()) {
       State nextState = state.copy();
       nextState.apply(action);
       result.add(new Pair<>(action, nextState));
@@ -111,6 +330,41 @@ public class PDDL implements LTSBuilder {
     return result;
   }
 
+  private Set<String> relevantPropositions(Problem problem) {
+    if (query != null) return RelevanceAnalysis.propositions(query);
+
+    Set<String> propositions = new HashSet<>();
+    problem.getInitialState().getFluents().forEach(fluent -> propositions.add(fluent.toString()));
+    Condition goal = problem.getGoalCondition();
+    goal.getPositiveFluents().forEach(fluent -> propositions.add(fluent.toString()));
+    goal.getNegativeFluents().forEach(fluent -> propositions.add(fluent.toString()));
+    return propositions;
+  }
+
+  private static UnaryOperator<State> projection(Problem problem, Collection<Fluent> fluents) {
+    if (!(problem instanceof ProjectableProblem projectableProblem)) {
+      throw new IllegalArgumentException("Problem does not support relevance analysis");
+    }
+    return projectableProblem.projection(fluents);
+  }
+
+  private static SymmetricProblem symmetricProblem(Problem problem) {
+    if (!(problem instanceof SymmetricProblem symmetricProblem)) {
+      throw new IllegalArgumentException("Problem does not support symmetry reduction");
+    }
+    return symmetricProblem;
+  }
+
+  private static State successor(State state, Action action, UnaryOperator<State> projection) {
+    State nextState = state.copy();
+    nextState.apply(action);
+    return projection.apply(nextState);
+  }
+
+  private static Set<String> compactLabels(State state, IndexedSet.Universe<String> fluentNames) {
+    return fluentNames.of(() -> state.getFluents().stream().map(Fluent::toString).iterator());
+  }
+
   private static Set<String> labels(State state, Problem problem) {
     Set<String> result = new HashSet<>();
     state.getFluents().forEach(fluent -> result.add(fluent.toString()));
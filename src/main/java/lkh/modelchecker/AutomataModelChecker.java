@@ -2,10 +2,17 @@ package lkh.modelchecker;
 
 import lkh.automata.impl.AutomataIterator;
 import lkh.automata.impl.AutomataOperations;
+import lkh.automata.impl.BestFirstIterator;
 import lkh.automata.impl.GraphDeterministicAutomaton;
+import lkh.automata.impl.ProductAutomaton;
 import lkh.expression.Expression;
+import lkh.lts.BeliefTransitionCache;
 import lkh.lts.LTS;
+import lkh.lts.LTSIndex;
+import lkh.utils.Cache;
+import lkh.utils.CacheStats;
 import lkh.utils.Pair;
+import lkh.utils.WeightedLruCache;
 import logger.Logger;
 import logger.LoggerContext;
 import lombok.NonNull;
@@ -13,13 +20,33 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class AutomataModelChecker<State, Action> implements ModelChecker<State, Action> {
+  /**
+   * Default maximum weight of the KH automata cache, measured in states plus transitions
+   */
+  public static final long DEFAULT_KH_CACHE_WEIGHT = 1 << 22;
+
   private final LTS<State, Action> lts;
   private final State pointedState;
   @Getter @Setter private boolean minimize;
-  private final Map<Expression, GraphDeterministicAutomaton<Integer, Action>> khAutomatonCache = new HashMap<>();
+  @Getter @Setter @NonNull
+  private Cache<KhAutomatonKey, GraphDeterministicAutomaton<Integer, Action>> khAutomatonCache =
+      new WeightedLruCache<>(DEFAULT_KH_CACHE_WEIGHT, AutomataModelChecker::automatonWeight);
+  // Intermediate automata, keyed on state sets so that they are shared between different expressions
+  private final Cache<StateKey<State>, GraphDeterministicAutomaton<Integer, Action>> aStarCache = tierCache();
+  private final Cache<Cond1Key<State>, GraphDeterministicAutomaton<Integer, Action>> cond1Cache = tierCache();
+  private final Cache<Cond2Key<State>, GraphDeterministicAutomaton<Integer, Action>> cond2Cache = tierCache();
+  // States satisfying each subexpression, weighted by the number of states so that large sets are evicted first
+  private final Cache<Expression, Set<State>> statesHoldingCache =
+      new WeightedLruCache<>(DEFAULT_KH_CACHE_WEIGHT, states -> states.size() + 1L);
+  private BeliefTransitionCache<State, Action> beliefCache;
 
   public AutomataModelChecker(@NonNull LTS<State, Action> lts, @NonNull State pointedState, boolean minimize) {
     if (!lts.containsState(pointedState))
@@ -59,6 +86,105 @@ public class AutomataModelChecker<State, Action> implements ModelChecker<State,
     return new AutomataIterator<>(khAutomaton(initExpression, endExpression), lengthLimit);
   }
 
+  /**
+   * Return the k shortest plans that witness kh(initExpr, endExpr) and have length of at most lengthLimit.
+   * The KH automaton is explored best-first (see BestFirstIterator), so fetching the first plans doesn't
+   * enumerate the longer ones.
+   * @param initExpression the expression that source states must satisfy
+   * @param endExpression the expression that end states must satisfy
+   * @param k the maximum number of plans to return
+   * @param lengthLimit the maximum plan length
+   * @return at most k witness plans, in increasing length
+   */
+  public List<List<Action>> shortestWitnesses(Expression initExpression, Expression endExpression, int k, int lengthLimit) {
+    if (k < 0) throw new IllegalArgumentException("k must not be negative");
+
+    List<List<Action>> result = new ArrayList<>();
+    Iterator<List<Action>> iterator = new BestFirstIterator<>(khAutomaton(initExpression, endExpression), lengthLimit);
+    while (result.size() < k && iterator.hasNext()) {
+      result.add(iterator.next());
+    }
+    return result;
+  }
+
+  /**
+   * Return the plans that witness kh(initExpr, endExpr) and have length of at most lengthLimit, cheapest first.
+   * The cost of a plan is the sum of the costs of its actions. The KH automaton is explored with A*
+   * (see BestFirstIterator), using the cheapest cost from each automaton state to a final state as heuristic.
+   * @param initExpression the expression that source states must satisfy
+   * @param endExpression the expression that end states must satisfy
+   * @param cost a function giving a non-negative cost to each action
+   * @param lengthLimit the maximum plan length
+   * @return an iterator over the witness plans, in non-decreasing cost
+   */
+  public Iterator<List<Action>> cheapestWitnesses(Expression initExpression, Expression endExpression,
+                                                  @NonNull ToDoubleFunction<? super Action> cost, int lengthLimit) {
+    return new BestFirstIterator<>(khAutomaton(initExpression, endExpression), lengthLimit, cost);
+  }
+
+  /**
+   * Return a lazy stream of the plans that witness kh(initExpr, endExpr) and have length of at most lengthLimit.
+   * Plans are produced on demand in the same order as witnesses(), as arrays with the ids of their actions
+   * in getIndex(), so the consumer controls the pace and no plan is kept after it is consumed.
+   * Nothing is built until the first plan is requested. The budget is checked before producing each plan and
+   * between expansions of the search for it, so a cancelled or timed out stream ends without finding the plan.
+   * @param initExpression the expression that source states must satisfy
+   * @param endExpression the expression that end states must satisfy
+   * @param lengthLimit the maximum plan length
+   * @param budget the limits of the stream
+   * @return a sequential stream of encoded witness plans
+   */
+  public Stream<int[]> witnessStream(Expression initExpression, Expression endExpression, int lengthLimit,
+                                     @NonNull WitnessBudget budget) {
+    long maxNanos = budget.maxNanos();
+    long start = System.nanoTime();
+    BooleanSupplier exhausted = () -> budget.cancelled().getAsBoolean() || System.nanoTime() - start > maxNanos;
+
+    Spliterator<int[]> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+      private long count = 0;
+      private LTSIndex<State, Action> index;
+      private AutomataIterator<Integer, Action> iterator;
+
+      @Override
+      public boolean tryAdvance(Consumer<? super int[]> action) {
+        if (count >= budget.maxCount() || exhausted.getAsBoolean()) return false;
+
+        if (iterator == null) {
+          index = getIndex();
+          iterator = new AutomataIterator<>(khAutomaton(initExpression, endExpression), lengthLimit);
+        }
+        int[] plan = iterator.nextEncoded(index::actionId, exhausted);
+        if (plan == null) return false;
+
+        count++;
+        action.accept(plan);
+        return true;
+      }
+    };
+
+    return StreamSupport.stream(spliterator, false);
+  }
+
+  /**
+   * Get the numbering of the states and actions of the LTS used by encoded plans.
+   * @return the index of the LTS
+   */
+  public LTSIndex<State, Action> getIndex() {
+    return beliefCache().getIndex();
+  }
+
+  /**
+   * Return the shortest plan that witnesses kh(initExpr, endExpr) and has length of at most lengthLimit.
+   * The plan is searched directly over the LTS (see BoundedWitnessSearch), so the KH automaton is not built.
+   * @param initExpression the expression that source states must satisfy
+   * @param endExpression the expression that end states must satisfy
+   * @param lengthLimit the maximum plan length
+   * @return the shortest witness plan, or empty if there is none within the limit
+   */
+  public Optional<List<Action>> boundedWitness(Expression initExpression, Expression endExpression, int lengthLimit) {
+    return new BoundedWitnessSearch<>(lts, beliefCache()).search(statesHolding(initExpression), statesHolding(endExpression), lengthLimit);
+  }
+
   /**
    * Return whether the LTS satisfies the expression over the given state.
    * @param expr a non null KH-Logic expression
@@ -81,54 +207,101 @@ public class AutomataModelChecker<State, Action> implements ModelChecker<State,
 
   /**
    * Return whether the LTS satisfies kh(left, right).
+   * Only the emptiness of the KH automaton matters here, so the product of cond1 and cond2 is explored on
+   * demand until a witness is found instead of being built. The size of the explored part is logged as the
+   * size of the KH automaton.
    * @param left initial expression
    * @param right end expression
    * @return whether the LTS satisfies kh(left, right)
    */
   private boolean kh(Expression left, Expression right) {
-    return !khAutomaton(left, right).isEmpty();
+    Set<State> initStates = statesHolding(left);
+    ProductAutomaton<Integer, Integer, Action> product =
+        new ProductAutomaton<>(cond1(initStates), cond2(initStates, statesHolding(right.not())));
+    boolean empty = product.isEmpty();
+    logAutomatonSize(product.getExploredSize());
+    return !empty;
   }
 
   /**
    * Construct the KH automaton by first building the cond1 and cond2 automata and intersect them.
-   * The result is cached so that repeated calls with the same expressions reuse the automaton.
+   * The result is cached so that repeated calls with the same expressions and minimize setting reuse the automaton.
+   * When minimize is off, dead states are trimmed after each intersection instead.
    * @param initExpr initial expression
    * @param endExpr end expression
    * @return the KH automaton
    */
   private GraphDeterministicAutomaton<Integer, Action> khAutomaton(Expression initExpr, Expression endExpr) {
-    Expression key = Expression.kh(initExpr, endExpr);
+    KhAutomatonKey key = new KhAutomatonKey(initExpr, endExpr, minimize);
     GraphDeterministicAutomaton<Integer, Action> automaton = khAutomatonCache.computeIfAbsent(
         key,
-        k -> AutomataOperations.intersection(cond1(initExpr), cond2(initExpr, endExpr))
+        k -> {
+          Set<State> initStates = statesHolding(initExpr);
+          GraphDeterministicAutomaton<Integer, Action> product =
+              AutomataOperations.intersection(cond1(initStates), cond2(initStates, statesHolding(endExpr.not())));
+          return minimize ? product : AutomataOperations.trim(product).automaton();
+        }
     );
-    logAutomatonSize(automaton);
+    logAutomatonSize(automaton.getSize());
     return automaton;
   }
 
-  private void logAutomatonSize(GraphDeterministicAutomaton<Integer, Action> automaton) {
+  /**
+   * Return the weight of an automaton in the KH automata cache
+   * @param automaton a cached automaton
+   * @return the number of states plus the number of transitions of the automaton
+   */
+  public static long automatonWeight(GraphDeterministicAutomaton<?, ?> automaton) {
+    Pair<Integer, Integer> size = automaton.getSize();
+    return (long) size.key() + size.value();
+  }
+
+  public CacheStats getAStarCacheStats() {
+    return aStarCache.getStats();
+  }
+
+  public CacheStats getCond1CacheStats() {
+    return cond1Cache.getStats();
+  }
+
+  public CacheStats getCond2CacheStats() {
+    return cond2Cache.getStats();
+  }
+
+  public CacheStats getStatesHoldingCacheStats() {
+    return statesHoldingCache.getStats();
+  }
+
+  private static <K, V extends GraphDeterministicAutomaton<?, ?>> Cache<K, V> tierCache() {
+    return new WeightedLruCache<>(DEFAULT_KH_CACHE_WEIGHT, AutomataModelChecker::automatonWeight);
+  }
+
+  private void logAutomatonSize(Pair<Integer, Integer> size) {
     Logger logger = LoggerContext.getLogger();
     if (logger != null) {
-      Pair<Integer, Integer> size = automaton.getSize();
       logger.setSize(size);
     }
   }
 
   /**
    * Return an automaton describing the plans that satisfy (1)
-   * (1) The plan is strongly executable for all states satisfying initExpr
-   * @param initExpr the expression that all source plans must satisfy
-   * @return an automaton describing all plans that are SE over all states satisfying initExpr
+   * (1) The plan is strongly executable for all the initial states
+   * The result is cached per set of initial states, as well as the aStar automaton of each state.
+   * @param initStates the states where initExpr holds
+   * @return an automaton describing all plans that are SE over all initial states
    */
-  private GraphDeterministicAutomaton<Integer, Action> cond1(Expression initExpr) {
-    Set<GraphDeterministicAutomaton<Integer, Action>> automataSet = new HashSet<>();
+  private GraphDeterministicAutomaton<Integer, Action> cond1(Set<State> initStates) {
+    return cond1Cache.computeIfAbsent(new Cond1Key<>(initStates, minimize), k -> buildCond1(initStates));
+  }
 
-    for (State state : statesHolding(initExpr)) {
-      GraphDeterministicAutomaton<Integer, Action> aStar = aStar(state);
+  private GraphDeterministicAutomaton<Integer, Action> buildCond1(Set<State> initStates) {
+    Set<GraphDeterministicAutomaton<Integer, Action>> automataSet = new HashSet<>();
 
-      if (minimize) {
-        aStar = AutomataOperations.minimize(aStar);
-      }
+    for (State state : initStates) {
+      GraphDeterministicAutomaton<Integer, Action> aStar = aStarCache.computeIfAbsent(new StateKey<>(state, minimize), k -> {
+        GraphDeterministicAutomaton<Integer, Action> automaton = aStar(state);
+        return minimize ? AutomataOperations.minimize(automaton) : automaton;
+      });
 
       automataSet.add(aStar);
     }
@@ -137,21 +310,26 @@ public class AutomataModelChecker<State, Action> implements ModelChecker<State,
     if (automataSet.isEmpty()) {
       return GraphDeterministicAutomaton.empty();
     }
-    return AutomataOperations.intersection(automataSet);
+    return AutomataOperations.intersection(automataSet, !minimize);
   }
 
   /**
    * Return an automaton describing all plans that satisfy (2)
-   * (2) When plan is applied to a state where initExpr holds, it leads to a state where endExpr holds
-   * @param initExpr the expression that source states must satisfy
-   * @param endExpr the expression that target states must satisfy
+   * (2) When plan is applied to an initial state, it doesn't lead to a bad state
+   * The result is cached per pair of initial and bad state sets.
+   * @param initStates the states where initExpr holds
+   * @param badStates the states where endExpr doesn't hold
    * @return an automaton describing all plans that satisfy (2)
    */
-  private GraphDeterministicAutomaton<Integer, Action> cond2(Expression initExpr, Expression endExpr) {
+  private GraphDeterministicAutomaton<Integer, Action> cond2(Set<State> initStates, Set<State> badStates) {
+    return cond2Cache.computeIfAbsent(new Cond2Key<>(initStates, badStates, minimize), k -> buildCond2(initStates, badStates));
+  }
+
+  private GraphDeterministicAutomaton<Integer, Action> buildCond2(Set<State> initStates, Set<State> badStates) {
     Set<GraphDeterministicAutomaton<Integer, Action>> automatonSet = new HashSet<>();
 
-    for (State initState : statesHolding(initExpr)) {
-      for (State endState : statesHolding(endExpr.not())) {
+    for (State initState : initStates) {
+      for (State endState : badStates) {
         GraphDeterministicAutomaton<Integer, Action> aComplement = aComplement(initState, endState);
 
         if (minimize) {
@@ -165,7 +343,7 @@ public class AutomataModelChecker<State, Action> implements ModelChecker<State,
     if (automatonSet.isEmpty()) {
       return GraphDeterministicAutomaton.empty();
     }
-    return AutomataOperations.intersection(automatonSet);
+    return AutomataOperations.intersection(automatonSet, !minimize);
   }
 
   /**
@@ -174,32 +352,48 @@ public class AutomataModelChecker<State, Action> implements ModelChecker<State,
    * @return an automaton describing all plans that are SE over state
    */
   private GraphDeterministicAutomaton<Integer, Action> aStar(State state) {
-    Stack<Set<State>> stack = new Stack<>();
-    Set<Set<State>> visited = new HashSet<>();
-    Set<State> initialStateSet = new HashSet<>(Set.of(state));
-
-    GraphDeterministicAutomaton<Set<State>, Action> automaton = new GraphDeterministicAutomaton<>();
+    BeliefTransitionCache<State, Action> cache = beliefCache();
+    // Automata built before only use the ids as names, so they are not affected if the macrostates are forgotten
+    cache.reclaim();
+    Stack<Integer> stack = new Stack<>();
+    Set<Integer> visited = new HashSet<>();
+    int initialStateSet = cache.intern(Set.of(state));
+
+    // States of the automaton are the ids of the macrostates, shared with the rest of the queries
+    GraphDeterministicAutomaton<Integer, Action> automaton = new GraphDeterministicAutomaton<>();
     automaton.setInitialState(initialStateSet);
 
     stack.push(initialStateSet);
 
     while (!stack.isEmpty()) {
-      Set<State> X = stack.pop();
-      visited.add(X);
+      int X = stack.pop();
+      if (!visited.add(X)) continue;
 
       for (Action a : lts.getActions()) {
-        lts.targets(X, a, true).ifPresent(Y -> {
-          automaton.addTransition(X, Y, a);
+        int Y = cache.successor(X, a);
+        if (Y == BeliefTransitionCache.NONE) continue;
+
+        automaton.addTransition(X, Y, a);
 
-          if (!visited.contains(Y))
-            stack.push(Y);
-        });
+        if (!visited.contains(Y))
+          stack.push(Y);
       }
     }
 
     automaton.addFinalStates(automaton.getStates());
 
-    return AutomataOperations.toIntegerStates(automaton);
+    return automaton;
+  }
+
+  /**
+   * Return the belief transition cache of the LTS, creating it on first use
+   * @return the cache shared by all the queries of this model checker
+   */
+  private BeliefTransitionCache<State, Action> beliefCache() {
+    if (beliefCache == null)
+      beliefCache = new BeliefTransitionCache<>(lts);
+
+    return beliefCache;
   }
 
   /**
@@ -224,12 +418,57 @@ public class AutomataModelChecker<State, Action> implements ModelChecker<State,
   }
 
   /**
-   * Return the states where the given expression holds
+   * Return the states where the given expression holds.
+   * The sets are computed bottom-up and memoised per subexpression, so a subformula shared by
+   * several expressions is evaluated once.
    * @param expression the expression to check
-   * @return a set of states where expression holds
+   * @return an unmodifiable set of states where expression holds
    */
   private Set<State> statesHolding(Expression expression) {
+    Set<State> states = statesHoldingCache.get(expression);
+    if (states != null) return states;
+
+    Expression left = expression.getLeft();
+    Expression right = expression.getRight();
+
     // TODO: Think about nested KH
-    return lts.getStates().stream().filter(state -> check(expression, state)).collect(Collectors.toSet());
+    states = switch (expression.getTokenType()) {
+      case KH -> kh(left, right) ? new HashSet<>(lts.getStates()) : Set.of();
+      case IMPLIES -> union(complement(statesHolding(left)), statesHolding(right));
+      case OR -> union(statesHolding(left), statesHolding(right));
+      case AND -> intersection(statesHolding(left), statesHolding(right));
+      case NOT -> complement(statesHolding(right));
+      case PROP -> lts.getStates().stream()
+          .filter(state -> lts.getLabels(state).contains(expression.getName()))
+          .collect(Collectors.toSet());
+    };
+
+    states = Collections.unmodifiableSet(states);
+    statesHoldingCache.put(expression, states);
+    return states;
+  }
+
+  private Set<State> complement(Set<State> states) {
+    Set<State> result = new HashSet<>(lts.getStates());
+    result.removeAll(states);
+    return result;
+  }
+
+  private Set<State> union(Set<State> a, Set<State> b) {
+    Set<State> result = new HashSet<>(a);
+    result.addAll(b);
+    return result;
   }
+
+  private Set<State> intersection(Set<State> a, Set<State> b) {
+    Set<State> result = new HashSet<>(a);
+    result.retainAll(b);
+    return result;
+  }
+
+  private record StateKey<State>(State state, boolean minimize) {}
+
+  private record Cond1Key<State>(Set<State> initStates, boolean minimize) {}
+
+  private record Cond2Key<State>(Set<State> initStates, Set<State> badStates, boolean minimize) {}
 }
@@ -0,0 +1,106 @@
+package lkh.modelchecker;
+
+import lkh.lts.BeliefTransitionCache;
+import lkh.lts.LTS;
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Bounded search of KH witness plans performed directly over an LTS, without building the KH automaton.
+ * The search does iterative deepening over the plan length and tracks the belief set of the current prefix,
+ * that is, the set of states reached by applying the prefix to every initial state.
+ * A prefix is pruned as soon as it stops being strongly executable, and a belief set is not expanded again
+ * if it was already explored at an equal or shorter depth during the same iteration.
+ * The first witness found is returned, so the cost grows with the length of the witness
+ * instead of with the size of the KH automaton.
+ * Belief sets and their successors are taken from a BeliefTransitionCache, which can be shared with other queries.
+ *
+ * @param <State> The type representing states in the LTS
+ * @param <Action> The type representing actions in the LTS
+ */
+public class BoundedWitnessSearch<State, Action> {
+  private final LTS<State, Action> lts;
+  private final BeliefTransitionCache<State, Action> cache;
+
+  public BoundedWitnessSearch(@NonNull LTS<State, Action> lts) {
+    this(lts, new BeliefTransitionCache<>(lts));
+  }
+
+  public BoundedWitnessSearch(@NonNull LTS<State, Action> lts, @NonNull BeliefTransitionCache<State, Action> cache) {
+    this.lts = lts;
+    this.cache = cache;
+  }
+
+  /**
+   * Return the shortest plan with length of at most lengthLimit that is strongly executable over all the
+   * initial states and leads all of them to states in endStates.
+   * @param initStates the states where the plan must be applied
+   * @param endStates the states where the plan must end
+   * @param lengthLimit the maximum plan length
+   * @return the shortest witness plan, or empty if there is none within the limit
+   */
+  public Optional<List<Action>> search(@NonNull Set<State> initStates, @NonNull Set<State> endStates, int lengthLimit) {
+    if (initStates.isEmpty()) return Optional.empty();
+
+    for (int bound = 0; bound <= lengthLimit; bound++) {
+      // No belief set id is in use between iterations
+      cache.reclaim();
+      Iteration iteration = new Iteration(endStates);
+
+      if (iteration.search(cache.intern(initStates), bound))
+        return Optional.of(new ArrayList<>(iteration.plan));
+
+      // Every belief set was fully explored without reaching the bound, deeper iterations can't do better
+      if (!iteration.cutoff) break;
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * A depth-limited search over belief sets.
+   */
+  private class Iteration {
+    private final Set<State> endStates;
+    private final List<Action> plan = new ArrayList<>();
+    // For each explored belief set, the largest remaining length it was explored with
+    private final Map<Integer, Integer> explored = new HashMap<>();
+    private boolean cutoff = false;
+
+    Iteration(Set<State> endStates) {
+      this.endStates = endStates;
+    }
+
+    /**
+     * Search a plan from the belief set using at most the remaining number of actions.
+     * On success, the found plan is left in the plan list.
+     * @param belief the id of the current belief set
+     * @param remaining the number of actions that can still be applied
+     * @return true if a witness plan was found
+     */
+    boolean search(int belief, int remaining) {
+      if (cache.allMatch(belief, endStates::contains)) return true;
+
+      if (remaining == 0) {
+        cutoff = true;
+        return false;
+      }
+
+      Integer previous = explored.get(belief);
+      if (previous != null && previous >= remaining) return false;
+      explored.put(belief, remaining);
+
+      for (Action action : lts.getActions()) {
+        int next = cache.successor(belief, action);
+        if (next == BeliefTransitionCache.NONE) continue;
+
+        plan.add(action);
+        if (search(next, remaining - 1)) return true;
+        plan.remove(plan.size() - 1);
+      }
+
+      return false;
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package lkh.modelchecker;
+
+import lkh.expression.Expression;
+
+/**
+ * Key of a cached KH automaton.
+ * The automaton depends on the minimize setting as well as on the expressions, so it is part of the key.
+ * @param initExpression the initial expression of the kh formula
+ * @param endExpression the end expression of the kh formula
+ * @param minimize whether the automata were minimized while building it
+ */
+public record KhAutomatonKey(Expression initExpression, Expression endExpression, boolean minimize) {}
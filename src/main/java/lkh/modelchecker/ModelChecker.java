@@ -1,10 +1,14 @@
 package lkh.modelchecker;
 
 import lkh.expression.Expression;
+import lkh.lts.LTSIndex;
 import lombok.NonNull;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
 
 /**
  * Interface for model checking systems against lkh expressions.
@@ -44,6 +48,63 @@ public interface ModelChecker<State, Action> {
      */
     Iterator<List<Action>> witnesses(Expression initExpression, Expression endExpression, int lengthLimit);
 
+    /**
+     * Return the shortest plan that witnesses kh(initExpr, endExpr) with length at most lengthLimit,
+     * without enumerating the rest of the witnesses.
+     *
+     * @param initExpression the expression that source states must satisfy
+     * @param endExpression the expression that end states must satisfy
+     * @param lengthLimit the maximum plan length
+     * @return the shortest witness plan, or empty if there is none within the limit
+     */
+    Optional<List<Action>> boundedWitness(Expression initExpression, Expression endExpression, int lengthLimit);
+
+    /**
+     * Return the k shortest plans that witness kh(initExpr, endExpr) with length at most lengthLimit,
+     * in increasing length.
+     *
+     * @param initExpression the expression that source states must satisfy
+     * @param endExpression the expression that end states must satisfy
+     * @param k the maximum number of plans to return
+     * @param lengthLimit the maximum plan length
+     * @return at most k witness plans, shortest first
+     */
+    List<List<Action>> shortestWitnesses(Expression initExpression, Expression endExpression, int k, int lengthLimit);
+
+    /**
+     * Return the plans that witness kh(initExpr, endExpr) with length at most lengthLimit,
+     * in non-decreasing total cost. The iterator is lazy, so fetching the cheapest plan doesn't
+     * enumerate the others.
+     *
+     * @param initExpression the expression that source states must satisfy
+     * @param endExpression the expression that end states must satisfy
+     * @param cost a function giving a non-negative cost to each action
+     * @param lengthLimit the maximum plan length
+     * @return an iterator over the witness plans, cheapest first
+     */
+    Iterator<List<Action>> cheapestWitnesses(Expression initExpression, Expression endExpression,
+                                             ToDoubleFunction<? super Action> cost, int lengthLimit);
+
+    /**
+     * Return a lazy stream of the plans that witness kh(initExpr, endExpr) with length at most lengthLimit,
+     * in the same order as witnesses(). Each plan is an array with the ids of its actions in getIndex().
+     * The stream ends when the plans run out or the budget is exhausted.
+     *
+     * @param initExpression the expression that source states must satisfy
+     * @param endExpression the expression that end states must satisfy
+     * @param lengthLimit the maximum plan length
+     * @param budget the limits of the stream
+     * @return a sequential stream of encoded witness plans
+     */
+    Stream<int[]> witnessStream(Expression initExpression, Expression endExpression, int lengthLimit, WitnessBudget budget);
+
+    /**
+     * Get the numbering of the states and actions of the system used by encoded plans.
+     *
+     * @return the index of the system
+     */
+    LTSIndex<State, Action> getIndex();
+
     /**
      * Set whether automata should be minimized during computation.
      * 
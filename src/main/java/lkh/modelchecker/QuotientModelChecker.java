@@ -0,0 +1,121 @@
+package lkh.modelchecker;
+
+import lkh.expression.Expression;
+import lkh.lts.BisimulationQuotient;
+import lkh.lts.LTS;
+import lkh.lts.LTSIndex;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Model checker that works on the bisimulation quotient of the LTS.
+ * KH formulas hold in a state iff they hold in its block, so every query is answered by an
+ * AutomataModelChecker over the quotient, with states mapped to their blocks. Witness plans are sequences
+ * of actions, which are the same in both LTSs. Encoded plans are translated to the ids of getIndex().
+ *
+ * @param <State> The type representing states in the LTS
+ * @param <Action> The type representing transition actions in the LTS
+ */
+public class QuotientModelChecker<State, Action> implements ModelChecker<State, Action> {
+  private final LTS<State, Action> lts;
+  @Getter private final BisimulationQuotient<State, Action> quotient;
+  private final AutomataModelChecker<Integer, Action> checker;
+  private LTSIndex<State, Action> index;
+  private int[] actionIds;
+
+  public QuotientModelChecker(@NonNull LTS<State, Action> lts, @NonNull State pointedState, boolean minimize) {
+    if (!lts.containsState(pointedState))
+      throw new IllegalArgumentException("pointedState not in lts");
+
+    this.lts = lts;
+    this.quotient = new BisimulationQuotient<>(lts);
+    this.checker = new AutomataModelChecker<>(quotient.getQuotient(), quotient.blockOf(pointedState), minimize);
+  }
+
+  public QuotientModelChecker(@NonNull LTS<State, Action> lts, @NonNull State pointedState) {
+    this(lts, pointedState, false);
+  }
+
+  @Override
+  public boolean check(@NonNull Expression expr) {
+    return checker.check(expr);
+  }
+
+  @Override
+  public boolean check(@NonNull Expression expr, State state) {
+    return checker.check(expr, quotient.blockOf(state));
+  }
+
+  @Override
+  public Iterator<List<Action>> witnesses(Expression initExpression, Expression endExpression, int lengthLimit) {
+    return checker.witnesses(initExpression, endExpression, lengthLimit);
+  }
+
+  @Override
+  public Optional<List<Action>> boundedWitness(Expression initExpression, Expression endExpression, int lengthLimit) {
+    return checker.boundedWitness(initExpression, endExpression, lengthLimit);
+  }
+
+  @Override
+  public List<List<Action>> shortestWitnesses(Expression initExpression, Expression endExpression, int k, int lengthLimit) {
+    return checker.shortestWitnesses(initExpression, endExpression, k, lengthLimit);
+  }
+
+  @Override
+  public Iterator<List<Action>> cheapestWitnesses(Expression initExpression, Expression endExpression,
+                                                  @NonNull ToDoubleFunction<? super Action> cost, int lengthLimit) {
+    return checker.cheapestWitnesses(initExpression, endExpression, cost, lengthLimit);
+  }
+
+  @Override
+  public Stream<int[]> witnessStream(Expression initExpression, Expression endExpression, int lengthLimit,
+                                     @NonNull WitnessBudget budget) {
+    int[] translation = actionIds();
+    return checker.witnessStream(initExpression, endExpression, lengthLimit, budget).map(plan -> {
+      for (int i = 0; i < plan.length; i++) {
+        plan[i] = translation[plan[i]];
+      }
+      return plan;
+    });
+  }
+
+  /**
+   * Get the numbering of the states and actions of the original LTS, used by encoded plans.
+   * @return the index of the original LTS
+   */
+  @Override
+  public LTSIndex<State, Action> getIndex() {
+    if (index == null) index = new LTSIndex<>(lts);
+    return index;
+  }
+
+  @Override
+  public void setMinimize(boolean minimize) {
+    checker.setMinimize(minimize);
+  }
+
+  @Override
+  public boolean isMinimize() {
+    return checker.isMinimize();
+  }
+
+  /**
+   * Map the action ids of the quotient checker to the ids of getIndex()
+   */
+  private int[] actionIds() {
+    if (actionIds == null) {
+      LTSIndex<Integer, Action> quotientIndex = checker.getIndex();
+      actionIds = new int[quotientIndex.actionCount()];
+      for (int id = 0; id < actionIds.length; id++) {
+        actionIds[id] = getIndex().actionId(quotientIndex.action(id));
+      }
+    }
+    return actionIds;
+  }
+}
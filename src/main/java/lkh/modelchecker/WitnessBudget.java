@@ -0,0 +1,60 @@
+package lkh.modelchecker;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits for a stream of witness plans.
+ * The limits are checked before producing each plan and while searching for it, so a stream ends as soon as it
+ * produced maxCount plans, ran for longer than maxTime or the cancellation flag is raised.
+ * @param maxCount the maximum number of plans to produce
+ * @param maxTime the maximum time to spend producing plans
+ * @param cancelled a flag that ends the stream when it returns true
+ */
+public record WitnessBudget(long maxCount, @NonNull Duration maxTime, @NonNull BooleanSupplier cancelled) {
+  private static final Duration FOREVER = Duration.ofNanos(Long.MAX_VALUE);
+
+  public WitnessBudget {
+    if (maxCount < 0) throw new IllegalArgumentException("maxCount must not be negative");
+    if (maxTime.isNegative()) throw new IllegalArgumentException("maxTime must not be negative");
+  }
+
+  /**
+   * Return a budget without limits
+   * @return a budget that never ends a stream
+   */
+  public static WitnessBudget unlimited() {
+    return new WitnessBudget(Long.MAX_VALUE, FOREVER, () -> false);
+  }
+
+  /**
+   * Return a budget that only limits the number of plans
+   * @param maxCount the maximum number of plans to produce
+   * @return a budget with the given count limit
+   */
+  public static WitnessBudget ofCount(long maxCount) {
+    return new WitnessBudget(maxCount, FOREVER, () -> false);
+  }
+
+  /**
+   * Get maxTime in nanoseconds
+   * @return the nanoseconds in maxTime, or Long.MAX_VALUE if they don't fit in a long
+   */
+  public long maxNanos() {
+    try {
+      return maxTime.toNanos();
+    } catch (ArithmeticException e) {
+      return Long.MAX_VALUE;
+    }
+  }
+
+  public WitnessBudget withMaxTime(@NonNull Duration maxTime) {
+    return new WitnessBudget(maxCount, maxTime, cancelled);
+  }
+
+  public WitnessBudget withCancellation(@NonNull BooleanSupplier cancelled) {
+    return new WitnessBudget(maxCount, maxTime, cancelled);
+  }
+}
@@ -0,0 +1,30 @@
+package lkh.planning;
+
+/**
+ * State with a 64-bit hash whose successors can be hashed and compared without being built.
+ */
+public interface IncrementalState extends State {
+  @Override
+  IncrementalState copy();
+
+  /**
+   * Get the 64-bit hash of the state. Equal states have equal hashes.
+   * @return the hash
+   */
+  long longHash();
+
+  /**
+   * Get the hash of the state reached by applying an action, without applying it
+   * @param action an action applicable in this state
+   * @return the longHash() of the successor
+   */
+  long successorHash(Action action);
+
+  /**
+   * Check if a state is the one reached by applying an action, without applying it
+   * @param action an action applicable in this state
+   * @param other a state
+   * @return true if other equals the successor
+   */
+  boolean successorEquals(Action action, State other);
+}
@@ -0,0 +1,61 @@
+package lkh.planning.pddl4j;
+
+import fr.uga.pddl4j.util.BitSet;
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import lkh.planning.Fluent;
+
+/**
+ * Read-only collection of the fluents whose bits are set in a pddl4j bit set.
+ * Nothing is copied: the view reads the bit set, so it reflects later changes to it.
+ */
+final class FluentView extends AbstractCollection<Fluent> {
+  private final BitSet bits;
+  private final List<? extends Fluent> fluents;
+  private final Map<Fluent, Integer> fluentIds;
+
+  FluentView(BitSet bits, List<? extends Fluent> fluents, Map<Fluent, Integer> fluentIds) {
+    this.bits = bits;
+    this.fluents = fluents;
+    this.fluentIds = fluentIds;
+  }
+
+  @Override
+  public Iterator<Fluent> iterator() {
+    return new Iterator<>() {
+      private int next = bits.nextSetBit(0);
+
+      @Override
+      public boolean hasNext() {
+        return next >= 0;
+      }
+
+      @Override
+      public Fluent next() {
+        if (next < 0) throw new NoSuchElementException();
+        Fluent fluent = fluents.get(next);
+        next = bits.nextSetBit(next + 1);
+        return fluent;
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return bits.cardinality();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return bits.isEmpty();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    Integer id = fluentIds.get(o);
+    return id != null && bits.get(id);
+  }
+}
@@ -0,0 +1,338 @@
+package lkh.planning.pddl4j;
+
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.Effect;
+import fr.uga.pddl4j.util.BitVector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classes of interchangeable objects of a grounded problem, used to canonicalise states.
+ * Two objects are interchangeable when swapping them maps the fluents, the actions, the initial state and the
+ * goal onto themselves, so the swap is an automorphism of the problem description. Swaps with a common object
+ * compose, so every permutation of a class is an automorphism as well, and it maps reachable states to
+ * reachable states with the same goal status.
+ * A state is canonicalised by sorting the objects of each class by the fluents they appear in, and renaming
+ * them in that order. Objects with the same fluents keep their relative order, so a few symmetric states may
+ * still get different representatives, but the representative is always in the orbit of the state. The
+ * renaming is returned with it, so that actions can be mapped the same way.
+ */
+final class ObjectSymmetries {
+  private final fr.uga.pddl4j.problem.Problem problem;
+  private final Map<List<Integer>, Integer> fluentIds = new HashMap<>();
+  private final Map<String, Integer> actionIds = new HashMap<>();
+  private final List<int[]> classes = new ArrayList<>();
+  private final int[] classOf;
+
+  // For each fluent, the interchangeable objects in its arguments and the pattern of each occurrence
+  private final int[][] occurrenceObjects;
+  private final int[][] occurrencePatterns;
+
+  ObjectSymmetries(fr.uga.pddl4j.problem.Problem problem) {
+    this.problem = problem;
+    List<fr.uga.pddl4j.problem.Fluent> fluents = problem.getFluents();
+    for (int id = 0; id < fluents.size(); id++) {
+      fluentIds.put(fluentKey(fluents.get(id).getSymbol(), fluents.get(id).getArguments()), id);
+    }
+    List<Action> actions = problem.getActions();
+    for (int id = 0; id < actions.size(); id++) {
+      actionIds.put(actionKey(actions.get(id).getName(), actions.get(id).getInstantiations()), id);
+    }
+
+    int objectCount = problem.getConstantSymbols().size();
+    classOf = new int[objectCount];
+    Arrays.fill(classOf, -1);
+    findClasses(objectCount);
+
+    occurrenceObjects = new int[fluents.size()][];
+    occurrencePatterns = new int[fluents.size()][];
+    indexOccurrences(fluents);
+  }
+
+  /**
+   * Get the classes of interchangeable objects with more than one object
+   * @return the constant ids of the objects of each class, in increasing order
+   */
+  List<int[]> getClasses() {
+    return Collections.unmodifiableList(classes);
+  }
+
+  /**
+   * Get the permutations of the fluents given by swapping consecutive objects of each class.
+   * They generate all the symmetries used to canonicalise states.
+   * @return for each generator, the image of each fluent id
+   */
+  List<int[]> fluentGenerators() {
+    List<int[]> generators = new ArrayList<>();
+    for (int[] members : classes) {
+      for (int i = 0; i + 1 < members.length; i++) {
+        generators.add(fluentImage(members[i], members[i + 1]));
+      }
+    }
+    return generators;
+  }
+
+  /**
+   * Get the representative of the orbit of a state
+   * @param state a state of the problem
+   * @param fixed a state whose objects may only be renamed to objects that appear in the same fluents in it,
+   *              or null to rename objects within their whole class
+   * @return the representative, which is the state itself if it is already canonical, and the renaming of
+   * the objects that maps the state to it, or null for the identity
+   */
+  Canonical canonical(fr.uga.pddl4j.problem.State state, fr.uga.pddl4j.problem.State fixed) {
+    if (classes.isEmpty()) return new Canonical(state, null);
+
+    Map<Integer, List<Integer>> signatures = signatures(state);
+    Map<Integer, List<Integer>> fixedSignatures = fixed == null ? Map.of() : signatures(fixed);
+
+    int[] renaming = null;
+    for (int[] members : classes) {
+      Map<List<Integer>, List<Integer>> groups = new LinkedHashMap<>();
+      for (int member : members) {
+        groups.computeIfAbsent(fixedSignatures.getOrDefault(member, List.of()), k -> new ArrayList<>()).add(member);
+      }
+
+      for (List<Integer> group : groups.values()) {
+        List<Integer> order = new ArrayList<>(group);
+        order.sort((a, b) -> {
+          int bySignature = compare(signatures.getOrDefault(a, List.of()), signatures.getOrDefault(b, List.of()));
+          return bySignature != 0 ? bySignature : Integer.compare(a, b);
+        });
+
+        for (int rank = 0; rank < group.size(); rank++) {
+          if (order.get(rank).equals(group.get(rank))) continue;
+          if (renaming == null) renaming = identity(classOf.length);
+          renaming[order.get(rank)] = group.get(rank);
+        }
+      }
+    }
+    if (renaming == null) return new Canonical(state, null);
+
+    fr.uga.pddl4j.problem.State result = new fr.uga.pddl4j.problem.State();
+    int[] finalRenaming = renaming;
+    state.stream().forEach(fluent -> result.set(rename(fluent, finalRenaming)));
+    return new Canonical(result, renaming);
+  }
+
+  /**
+   * Get the image of an action under a renaming of the objects
+   * @param action the index of the action in the actions of the problem
+   * @param renaming a renaming returned by canonical(), or null for the identity
+   * @return the index of the action with the renamed instantiations
+   */
+  int image(int action, int[] renaming) {
+    if (renaming == null) return action;
+
+    Action original = problem.getActions().get(action);
+    int[] args = original.getInstantiations().clone();
+    for (int i = 0; i < args.length; i++) {
+      args[i] = renaming[args[i]];
+    }
+    return actionIds.get(actionKey(original.getName(), args));
+  }
+
+  /**
+   * Get the sorted patterns of the occurrences of each interchangeable object in the fluents of a state
+   */
+  private Map<Integer, List<Integer>> signatures(fr.uga.pddl4j.problem.State state) {
+    Map<Integer, List<Integer>> signatures = new HashMap<>();
+    state.stream().forEach(fluent -> {
+      for (int i = 0; i < occurrenceObjects[fluent].length; i++) {
+        signatures.computeIfAbsent(occurrenceObjects[fluent][i], k -> new ArrayList<>())
+            .add(occurrencePatterns[fluent][i]);
+      }
+    });
+    signatures.values().forEach(Collections::sort);
+    return signatures;
+  }
+
+  /**
+   * Group the objects into classes, trying each one against a member of the classes found so far.
+   * Only objects that occur the same number of times in each argument of each predicate, both in the
+   * fluents and in the initial state and the goal, are compared.
+   */
+  private void findClasses(int objectCount) {
+    Map<List<Long>, List<int[]>> candidates = new HashMap<>();
+    List<List<Long>> profiles = profiles(objectCount);
+
+    Map<Integer, List<Integer>> grouped = new LinkedHashMap<>();
+    for (int object = 0; object < objectCount; object++) {
+      List<int[]> sameProfile = candidates.computeIfAbsent(profiles.get(object), k -> new ArrayList<>());
+      int[] joined = null;
+      for (int[] group : sameProfile) {
+        if (isAutomorphism(group[0], object)) {
+          joined = group;
+          break;
+        }
+      }
+      if (joined == null) sameProfile.add(new int[]{object});
+      grouped.computeIfAbsent(joined == null ? object : joined[0], k -> new ArrayList<>()).add(object);
+    }
+
+    for (List<Integer> group : grouped.values()) {
+      if (group.size() < 2) continue;
+      for (int object : group) classOf[object] = classes.size();
+      classes.add(group.stream().mapToInt(Integer::intValue).toArray());
+    }
+  }
+
+  private List<List<Long>> profiles(int objectCount) {
+    List<List<Long>> profiles = new ArrayList<>();
+    for (int object = 0; object < objectCount; object++) profiles.add(new ArrayList<>());
+
+    BitVector init = problem.getInitialState().getPositiveFluents();
+    Condition goal = problem.getGoal();
+    List<fr.uga.pddl4j.problem.Fluent> fluents = problem.getFluents();
+    for (int id = 0; id < fluents.size(); id++) {
+      int[] args = fluents.get(id).getArguments();
+      long flags = (init.get(id) ? 1 : 0)
+          | (goal.getPositiveFluents().get(id) ? 2 : 0)
+          | (goal.getNegativeFluents().get(id) ? 4 : 0);
+      for (int i = 0; i < args.length; i++) {
+        profiles.get(args[i]).add(((long) fluents.get(id).getSymbol() << 40) | ((long) i << 8) | flags);
+      }
+    }
+    profiles.forEach(Collections::sort);
+    return profiles;
+  }
+
+  /**
+   * Check if swapping two objects maps the problem onto itself
+   */
+  private boolean isAutomorphism(int a, int b) {
+    int[] image = fluentImage(a, b);
+    if (image == null) return false;
+
+    if (!preserves(problem.getInitialState().getPositiveFluents(), image)) return false;
+    if (!preserves(problem.getGoal(), problem.getGoal(), image)) return false;
+
+    for (Action action : problem.getActions()) {
+      Integer otherId = actionIds.get(actionKey(action.getName(), swap(action.getInstantiations(), a, b)));
+      if (otherId == null) return false;
+      Action other = problem.getActions().get(otherId);
+      if (!preserves(action.getPrecondition(), other.getPrecondition(), image)) return false;
+
+      Effect effect = action.getUnconditionalEffect();
+      Effect otherEffect = other.getUnconditionalEffect();
+      if (!image(effect.getPositiveFluents(), image).equals(otherEffect.getPositiveFluents())) return false;
+      if (!image(effect.getNegativeFluents(), image).equals(otherEffect.getNegativeFluents())) return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Get the permutation of the fluents given by swapping two objects
+   * @return the image of each fluent id, or null if some image is not a fluent of the problem
+   */
+  private int[] fluentImage(int a, int b) {
+    List<fr.uga.pddl4j.problem.Fluent> fluents = problem.getFluents();
+    int[] image = new int[fluents.size()];
+    for (int id = 0; id < image.length; id++) {
+      Integer target = fluentIds.get(fluentKey(fluents.get(id).getSymbol(), swap(fluents.get(id).getArguments(), a, b)));
+      if (target == null) return null;
+      image[id] = target;
+    }
+    return image;
+  }
+
+  private void indexOccurrences(List<fr.uga.pddl4j.problem.Fluent> fluents) {
+    Map<List<Integer>, Integer> patternIds = new HashMap<>();
+    for (int id = 0; id < fluents.size(); id++) {
+      int symbol = fluents.get(id).getSymbol();
+      int[] args = fluents.get(id).getArguments();
+      List<Integer> objects = new ArrayList<>();
+      List<Integer> patterns = new ArrayList<>();
+
+      for (int i = 0; i < args.length; i++) {
+        if (classOf[args[i]] == -1) continue;
+
+        // The pattern names the other interchangeable objects by their class, so it doesn't depend on them
+        List<Integer> pattern = new ArrayList<>(List.of(symbol, i));
+        for (int arg : args) {
+          pattern.add(classOf[arg] == -1 ? arg : -2 - classOf[arg]);
+        }
+        objects.add(args[i]);
+        patterns.add(patternIds.computeIfAbsent(pattern, k -> patternIds.size()));
+      }
+
+      occurrenceObjects[id] = objects.stream().mapToInt(Integer::intValue).toArray();
+      occurrencePatterns[id] = patterns.stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+
+  private int rename(int fluent, int[] renaming) {
+    if (occurrenceObjects[fluent].length == 0) return fluent;
+
+    fr.uga.pddl4j.problem.Fluent original = problem.getFluents().get(fluent);
+    int[] args = original.getArguments().clone();
+    for (int i = 0; i < args.length; i++) {
+      args[i] = renaming[args[i]];
+    }
+    return fluentIds.get(fluentKey(original.getSymbol(), args));
+  }
+
+  private static boolean preserves(BitVector fluents, int[] image) {
+    return image(fluents, image).equals(fluents);
+  }
+
+  private static boolean preserves(Condition condition, Condition other, int[] image) {
+    return image(condition.getPositiveFluents(), image).equals(other.getPositiveFluents())
+        && image(condition.getNegativeFluents(), image).equals(other.getNegativeFluents());
+  }
+
+  private static BitVector image(BitVector fluents, int[] image) {
+    BitVector result = new BitVector();
+    fluents.stream().forEach(id -> result.set(image[id]));
+    return result;
+  }
+
+  private static int[] swap(int[] args, int a, int b) {
+    int[] swapped = args.clone();
+    for (int i = 0; i < swapped.length; i++) {
+      if (swapped[i] == a) swapped[i] = b;
+      else if (swapped[i] == b) swapped[i] = a;
+    }
+    return swapped;
+  }
+
+  private static int[] identity(int size) {
+    int[] identity = new int[size];
+    for (int i = 0; i < size; i++) identity[i] = i;
+    return identity;
+  }
+
+  private static int compare(List<Integer> a, List<Integer> b) {
+    for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+      int comparison = Integer.compare(a.get(i), b.get(i));
+      if (comparison != 0) return comparison;
+    }
+    return Integer.compare(a.size(), b.size());
+  }
+
+  private static List<Integer> fluentKey(int symbol, int[] args) {
+    List<Integer> key = new ArrayList<>(args.length + 1);
+    key.add(symbol);
+    for (int arg : args) key.add(arg);
+    return key;
+  }
+
+  private static String actionKey(String name, int[] instantiations) {
+    return name + Arrays.toString(instantiations);
+  }
+
+  /**
+   * A canonical state and the renaming of the objects that leads to it
+   * @param state the canonical state
+   * @param renaming the new id of each object, or null if no object is renamed
+   */
+  record Canonical(fr.uga.pddl4j.problem.State state, int[] renaming) {
+  }
+}
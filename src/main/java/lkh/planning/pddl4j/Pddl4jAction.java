@@ -13,16 +13,26 @@ import lkh.por.AnalyzableAction;
 
 final class Pddl4jAction implements AnalyzableAction {
   private final fr.uga.pddl4j.problem.operator.Action delegate;
-  private final Pddl4jProblem problem;
   private final String name;
+  private final Condition precondition;
+  private final Effect effects;
+  // Fluents made true and false by the action; a fluent both added and deleted ends up true
+  private final int[] addedFluents;
+  private final int[] deletedFluents;
   private Collection<Fluent> dependentFluents;
   private Collection<Fluent> affectedFluents;
   private Collection<Fluent> transitionFluents;
 
   Pddl4jAction(fr.uga.pddl4j.problem.operator.Action delegate, Pddl4jProblem problem) {
     this.delegate = delegate;
-    this.problem = problem;
     this.name = buildName(delegate, problem.unwrap());
+    this.precondition = new Pddl4jCondition(delegate.getPrecondition(), problem);
+    this.effects = new Pddl4jEffect(delegate.getUnconditionalEffect(), problem);
+    fr.uga.pddl4j.problem.operator.Effect effect = delegate.getUnconditionalEffect();
+    this.addedFluents = effect.getPositiveFluents().stream().toArray();
+    this.deletedFluents = effect.getNegativeFluents().stream()
+        .filter(fluent -> !effect.getPositiveFluents().get(fluent))
+        .toArray();
   }
 
   private static String buildName(fr.uga.pddl4j.problem.operator.Action action, fr.uga.pddl4j.problem.Problem problem) {
@@ -40,6 +50,14 @@ final class Pddl4jAction implements AnalyzableAction {
     return delegate;
   }
 
+  int[] addedFluents() {
+    return addedFluents;
+  }
+
+  int[] deletedFluents() {
+    return deletedFluents;
+  }
+
   @Override
   public String getName() {
     return name;
@@ -47,12 +65,12 @@ final class Pddl4jAction implements AnalyzableAction {
 
   @Override
   public Condition getPrecondition() {
-    return new Pddl4jCondition(delegate.getPrecondition(), problem);
+    return precondition;
   }
 
   @Override
   public Effect getEffects() {
-    return new Pddl4jEffect(delegate.getUnconditionalEffect(), problem);
+    return effects;
   }
 
   @Override
@@ -86,12 +104,12 @@ final class Pddl4jAction implements AnalyzableAction {
       return;
     }
     LinkedHashSet<Fluent> dependent = new LinkedHashSet<>();
-    dependent.addAll(getPrecondition().getPositiveFluents());
-    dependent.addAll(getPrecondition().getNegativeFluents());
+    dependent.addAll(precondition.getPositiveFluents());
+    dependent.addAll(precondition.getNegativeFluents());
 
     LinkedHashSet<Fluent> affected = new LinkedHashSet<>();
-    affected.addAll(getEffects().getPositiveFluents());
-    affected.addAll(getEffects().getNegativeFluents());
+    affected.addAll(effects.getPositiveFluents());
+    affected.addAll(effects.getNegativeFluents());
 
     LinkedHashSet<Fluent> transition = new LinkedHashSet<>(affected);
     transition.retainAll(dependent);
@@ -5,21 +5,21 @@ import lkh.planning.Condition;
 import lkh.planning.Fluent;
 
 final class Pddl4jCondition implements Condition {
-  private final fr.uga.pddl4j.problem.operator.Condition delegate;
-  private final Pddl4jProblem problem;
+  private final Collection<Fluent> positiveFluents;
+  private final Collection<Fluent> negativeFluents;
 
   Pddl4jCondition(fr.uga.pddl4j.problem.operator.Condition delegate, Pddl4jProblem problem) {
-    this.delegate = delegate;
-    this.problem = problem;
+    this.positiveFluents = problem.wrapFluents(delegate.getPositiveFluents());
+    this.negativeFluents = problem.wrapFluents(delegate.getNegativeFluents());
   }
 
   @Override
   public Collection<Fluent> getPositiveFluents() {
-    return problem.wrapFluents(delegate.getPositiveFluents());
+    return positiveFluents;
   }
 
   @Override
   public Collection<Fluent> getNegativeFluents() {
-    return problem.wrapFluents(delegate.getNegativeFluents());
+    return negativeFluents;
   }
 }
@@ -5,21 +5,21 @@ import lkh.planning.Effect;
 import lkh.planning.Fluent;
 
 final class Pddl4jEffect implements Effect {
-  private final fr.uga.pddl4j.problem.operator.Effect delegate;
-  private final Pddl4jProblem problem;
+  private final Collection<Fluent> positiveFluents;
+  private final Collection<Fluent> negativeFluents;
 
   Pddl4jEffect(fr.uga.pddl4j.problem.operator.Effect delegate, Pddl4jProblem problem) {
-    this.delegate = delegate;
-    this.problem = problem;
+    this.positiveFluents = problem.wrapFluents(delegate.getPositiveFluents());
+    this.negativeFluents = problem.wrapFluents(delegate.getNegativeFluents());
   }
 
   @Override
   public Collection<Fluent> getPositiveFluents() {
-    return problem.wrapFluents(delegate.getPositiveFluents());
+    return positiveFluents;
   }
 
   @Override
   public Collection<Fluent> getNegativeFluents() {
-    return problem.wrapFluents(delegate.getNegativeFluents());
+    return negativeFluents;
   }
 }
@@ -9,18 +9,28 @@ import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.UnaryOperator;
 import lkh.planning.Action;
 import lkh.planning.Condition;
 import lkh.planning.Fluent;
-import lkh.planning.Problem;
 import lkh.planning.State;
+import lkh.por.ProjectableProblem;
+import lkh.por.SymmetricProblem;
+
+public class Pddl4jProblem implements SymmetricProblem, ProjectableProblem {
+  private static final long ZOBRIST_SEED = 0x5DEECE66DL;
 
-public class Pddl4jProblem implements Problem {
   private final fr.uga.pddl4j.problem.Problem delegate;
   private final List<Pddl4jFluent> fluents;
+  private final Map<Fluent, Integer> fluentIds = new HashMap<>();
   private final List<Pddl4jAction> actions;
+  private final Map<Action, Integer> actionIds = new HashMap<>();
+  private final long[] zobristKeys;
+  private ObjectSymmetries symmetries;
 
   public Pddl4jProblem(String domainFilename, String problemFilename) throws FileNotFoundException {
     Parser parser = new Parser();
@@ -30,7 +40,14 @@ public class Pddl4jProblem implements Problem {
     delegate.instantiate();
     validateNoConditionalEffects();
     fluents = buildFluents(delegate);
+    for (int id = 0; id < fluents.size(); id++) {
+      fluentIds.put(fluents.get(id), id);
+    }
     actions = buildActions(delegate);
+    for (int id = 0; id < actions.size(); id++) {
+      actionIds.put(actions.get(id), id);
+    }
+    zobristKeys = new SplittableRandom(ZOBRIST_SEED).longs(fluents.size()).toArray();
   }
 
   fr.uga.pddl4j.problem.Problem unwrap() {
@@ -57,16 +74,99 @@ public class Pddl4jProblem implements Problem {
     return new Pddl4jCondition(delegate.getGoal(), this);
   }
 
-  Collection<Fluent> wrapFluents(BitVector bitVector) {
-    LinkedHashSet<Fluent> wrapped = new LinkedHashSet<>();
-    bitVector.stream().forEach(index -> wrapped.add(fluents.get(index)));
-    return Collections.unmodifiableCollection(wrapped);
+  /**
+   * Map a state to the representative of its orbit under permutations of interchangeable objects.
+   * The interchangeable objects are found the first time this is called.
+   */
+  @Override
+  public Representative canonicalState(State state) {
+    return canonicalState(state, null);
   }
 
-  Collection<Fluent> wrapFluents(fr.uga.pddl4j.problem.State state) {
-    LinkedHashSet<Fluent> wrapped = new LinkedHashSet<>();
-    state.stream().forEach(index -> wrapped.add(fluents.get(index)));
-    return Collections.unmodifiableCollection(wrapped);
+  /**
+   * Map a state to the representative of its orbit under permutations of interchangeable objects that appear
+   * in the same fluents of another state.
+   */
+  @Override
+  public Representative canonicalState(State state, State fixed) {
+    ObjectSymmetries.Canonical canonical = symmetries().canonical(unwrap(state), fixed == null ? null : unwrap(fixed));
+    int[] renaming = canonical.renaming();
+    if (renaming == null) {
+      return new Representative(state, UnaryOperator.identity());
+    }
+
+    return new Representative(new Pddl4jState(canonical.state(), this), action -> {
+      Integer id = actionIds.get(action);
+      if (id == null) {
+        throw new IllegalArgumentException("Action not in problem: " + action);
+      }
+      return actions.get(symmetries.image(id, renaming));
+    });
+  }
+
+  @Override
+  public List<Map<String, String>> symmetryGenerators() {
+    List<Map<String, String>> generators = new ArrayList<>();
+    for (int[] image : symmetries().fluentGenerators()) {
+      Map<String, String> names = new HashMap<>();
+      for (int id = 0; id < image.length; id++) {
+        if (image[id] != id) names.put(fluents.get(id).toString(), fluents.get(image[id]).toString());
+      }
+      generators.add(names);
+    }
+    return generators;
+  }
+
+  @Override
+  public UnaryOperator<State> projection(Collection<? extends Fluent> kept) {
+    BitVector mask = new BitVector();
+    for (Fluent fluent : kept) {
+      Integer id = fluentIds.get(fluent);
+      if (id == null) {
+        throw new IllegalArgumentException("Fluent not in problem: " + fluent);
+      }
+      mask.set(id);
+    }
+
+    return state -> {
+      if (!(state instanceof Pddl4jState pddl4jState)) {
+        throw new IllegalArgumentException("State must be a Pddl4jState");
+      }
+      if (mask.include(pddl4jState.unwrap())) {
+        return state;
+      }
+      fr.uga.pddl4j.problem.State projected = new fr.uga.pddl4j.problem.State(pddl4jState.unwrap());
+      projected.and(mask);
+      return new Pddl4jState(projected, this);
+    };
+  }
+
+  /**
+   * Get the random key of a fluent. The hash of a state is the xor of the keys of its fluents.
+   */
+  long zobristKey(int fluent) {
+    return zobristKeys[fluent];
+  }
+
+  private static fr.uga.pddl4j.problem.State unwrap(State state) {
+    if (!(state instanceof Pddl4jState pddl4jState)) {
+      throw new IllegalArgumentException("State must be a Pddl4jState");
+    }
+    return pddl4jState.unwrap();
+  }
+
+  private ObjectSymmetries symmetries() {
+    if (symmetries == null) {
+      symmetries = new ObjectSymmetries(delegate);
+    }
+    return symmetries;
+  }
+
+  /**
+   * Get the fluents of a bit vector as a view, without copying them
+   */
+  Collection<Fluent> wrapFluents(BitVector bitVector) {
+    return new FluentView(bitVector, fluents, fluentIds);
   }
 
   private List<Pddl4jFluent> buildFluents(fr.uga.pddl4j.problem.Problem problem) {
@@ -1,18 +1,32 @@
 package lkh.planning.pddl4j;
 
 import java.util.Collection;
-import java.util.Objects;
 import lkh.planning.Action;
 import lkh.planning.Fluent;
+import lkh.planning.IncrementalState;
 import lkh.planning.State;
 
-final class Pddl4jState implements State {
+/**
+ * State of a pddl4j problem.
+ * The state keeps the xor of the Zobrist keys of its fluents, which is updated by apply from the fluents the
+ * action flips, and is used as hash code.
+ */
+final class Pddl4jState implements IncrementalState {
   private final fr.uga.pddl4j.problem.State delegate;
   private final Pddl4jProblem problem;
+  private long zobrist;
 
   Pddl4jState(fr.uga.pddl4j.problem.State delegate, Pddl4jProblem problem) {
+    this(delegate, problem, 0);
+    for (int fluent = delegate.nextSetBit(0); fluent >= 0; fluent = delegate.nextSetBit(fluent + 1)) {
+      zobrist ^= problem.zobristKey(fluent);
+    }
+  }
+
+  private Pddl4jState(fr.uga.pddl4j.problem.State delegate, Pddl4jProblem problem, long zobrist) {
     this.delegate = delegate;
     this.problem = problem;
+    this.zobrist = zobrist;
   }
 
   fr.uga.pddl4j.problem.State unwrap() {
@@ -25,18 +39,63 @@ final class Pddl4jState implements State {
   }
 
   @Override
-  public State copy() {
-    return new Pddl4jState(new fr.uga.pddl4j.problem.State(delegate), problem);
+  public Pddl4jState copy() {
+    return new Pddl4jState(new fr.uga.pddl4j.problem.State(delegate), problem, zobrist);
   }
 
   @Override
   public void apply(Action action) {
-    if (!(action instanceof Pddl4jAction pddl4jAction)) {
-      throw new IllegalArgumentException("Action must be a Pddl4jAction");
-    }
+    Pddl4jAction pddl4jAction = toPddl4jAction(action);
+    zobrist = successorHash(pddl4jAction);
     delegate.apply(pddl4jAction.unwrap().getUnconditionalEffect());
   }
 
+  @Override
+  public long longHash() {
+    return zobrist;
+  }
+
+  @Override
+  public long successorHash(Action action) {
+    Pddl4jAction pddl4jAction = toPddl4jAction(action);
+    long hash = zobrist;
+    for (int fluent : pddl4jAction.addedFluents()) {
+      if (!delegate.get(fluent)) hash ^= problem.zobristKey(fluent);
+    }
+    for (int fluent : pddl4jAction.deletedFluents()) {
+      if (delegate.get(fluent)) hash ^= problem.zobristKey(fluent);
+    }
+    return hash;
+  }
+
+  @Override
+  public boolean successorEquals(Action action, State other) {
+    Pddl4jAction pddl4jAction = toPddl4jAction(action);
+    if (!(other instanceof Pddl4jState pddl4jState)) {
+      return false;
+    }
+    fr.uga.pddl4j.problem.State target = pddl4jState.delegate;
+
+    int size = delegate.cardinality();
+    for (int fluent : pddl4jAction.addedFluents()) {
+      if (!target.get(fluent)) return false;
+      if (!delegate.get(fluent)) size++;
+    }
+    for (int fluent : pddl4jAction.deletedFluents()) {
+      if (target.get(fluent)) return false;
+      if (delegate.get(fluent)) size--;
+    }
+    if (target.cardinality() != size) return false;
+
+    // The successor has the same size as other and contains the added fluents, which are in other,
+    // so they are equal if the fluents of this state that are kept are in other too
+    fr.uga.pddl4j.util.BitVector deleted = pddl4jAction.unwrap().getUnconditionalEffect().getNegativeFluents();
+    for (int fluent = delegate.nextSetBit(0); fluent >= 0; fluent = delegate.nextSetBit(fluent + 1)) {
+      if (!target.get(fluent) && !deleted.get(fluent)) return false;
+    }
+    return true;
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (this == obj) {
@@ -50,6 +109,13 @@ final class Pddl4jState implements State {
 
   @Override
   public int hashCode() {
-    return Objects.hash(delegate);
+    return Long.hashCode(zobrist);
+  }
+
+  private static Pddl4jAction toPddl4jAction(Action action) {
+    if (!(action instanceof Pddl4jAction pddl4jAction)) {
+      throw new IllegalArgumentException("Action must be a Pddl4jAction");
+    }
+    return pddl4jAction;
   }
 }
@@ -0,0 +1,16 @@
+package lkh.por;
+
+import java.util.Collection;
+import java.util.function.UnaryOperator;
+import lkh.planning.Fluent;
+import lkh.planning.Problem;
+import lkh.planning.State;
+
+public interface ProjectableProblem extends Problem {
+  /**
+   * Get the projection of states onto some fluents
+   * @param fluents the fluents to keep
+   * @return a function mapping a state to a state where only the given fluents can be true
+   */
+  UnaryOperator<State> projection(Collection<? extends Fluent> fluents);
+}
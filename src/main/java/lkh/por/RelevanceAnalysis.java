@@ -0,0 +1,115 @@
+package lkh.por;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import lkh.expression.Expression;
+import lkh.expression.ExpressionType;
+import lkh.planning.Action;
+import lkh.planning.Fluent;
+import lkh.planning.Problem;
+
+/**
+ * Fluents and actions that can influence a set of propositions.
+ * The fluents named by the propositions are relevant, an action is relevant when it changes a relevant fluent,
+ * and the fluents in the precondition of a relevant action are relevant too.
+ * Whether a relevant action is applicable and what it does to the relevant fluents depends only on relevant
+ * fluents, and the other actions don't change them. So states that differ only in irrelevant fluents can be
+ * merged and the irrelevant actions dropped, and formulas over the propositions keep their truth value:
+ * removing the irrelevant actions from a plan leaves a plan that is executable in the same states and reaches
+ * states with the same relevant fluents.
+ */
+public class RelevanceAnalysis {
+  private final Set<Fluent> relevantFluents = new LinkedHashSet<>();
+  private final List<Action> relevantActions = new ArrayList<>();
+
+  /**
+   * @param problem the problem to analyze, whose actions must implement AnalyzableAction
+   * @param propositions the names of the fluents to preserve
+   */
+  public RelevanceAnalysis(Problem problem, Collection<String> propositions) {
+    Map<Fluent, List<AnalyzableAction>> affectingActions = new HashMap<>();
+    for (Action action : problem.getActions()) {
+      AnalyzableAction analyzableAction = toAnalyzableAction(action);
+      for (Fluent fluent : analyzableAction.getAffectedFluents()) {
+        affectingActions.computeIfAbsent(fluent, k -> new ArrayList<>()).add(analyzableAction);
+      }
+    }
+
+    Queue<Fluent> pending = new ArrayDeque<>();
+    for (Fluent fluent : problem.getFluents()) {
+      if (propositions.contains(fluent.toString()) && relevantFluents.add(fluent)) {
+        pending.add(fluent);
+      }
+    }
+
+    Set<Action> visitedActions = new HashSet<>();
+    while (!pending.isEmpty()) {
+      for (AnalyzableAction action : affectingActions.getOrDefault(pending.remove(), List.of())) {
+        if (!visitedActions.add(action)) continue;
+
+        for (Fluent fluent : action.getDependentFluents()) {
+          if (relevantFluents.add(fluent)) pending.add(fluent);
+        }
+      }
+    }
+
+    // Kept in the order of the problem, so the exploration doesn't depend on the analysis
+    for (Action action : problem.getActions()) {
+      if (visitedActions.contains(action)) relevantActions.add(action);
+    }
+  }
+
+  /**
+   * @param problem the problem to analyze, whose actions must implement AnalyzableAction
+   * @param query an expression over the fluents of the problem
+   */
+  public RelevanceAnalysis(Problem problem, Expression query) {
+    this(problem, propositions(query));
+  }
+
+  public Set<Fluent> getRelevantFluents() {
+    return Collections.unmodifiableSet(relevantFluents);
+  }
+
+  public List<Action> getRelevantActions() {
+    return Collections.unmodifiableList(relevantActions);
+  }
+
+  /**
+   * Get the names of the propositions of an expression
+   * @param expression an expression
+   * @return the names of its PROP nodes
+   */
+  public static Set<String> propositions(Expression expression) {
+    Set<String> result = new HashSet<>();
+    collectPropositions(expression, result);
+    return result;
+  }
+
+  private static void collectPropositions(Expression expression, Set<String> result) {
+    if (expression == null) return;
+    if (expression.getTokenType() == ExpressionType.PROP) {
+      result.add(expression.getName());
+      return;
+    }
+    collectPropositions(expression.getLeft(), result);
+    collectPropositions(expression.getRight(), result);
+  }
+
+  private static AnalyzableAction toAnalyzableAction(Action action) {
+    if (!(action instanceof AnalyzableAction analyzableAction)) {
+      throw new IllegalArgumentException("Action must implement AnalyzableAction");
+    }
+    return analyzableAction;
+  }
+}
@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import lkh.graph.BidirectionalHashMapDirectedGraph;
 import lkh.graph.DirectedGraph;
 import lkh.graph.DirectedGraphOperations;
 import lkh.graph.HashMapDirectedGraph;
@@ -70,7 +71,8 @@ public class StratifiedReducer {
   }
 
   private void buildContractedGraph() {
-    contractedGraph = new HashMapDirectedGraph<>();
+    // Stratification queries the predecessors of every component
+    contractedGraph = new BidirectionalHashMapDirectedGraph<>();
     Set<Set<Fluent>> SCCs = DirectedGraphOperations.getSCCs(causalGraph);
     contractedGraph.addVertices(SCCs);
 
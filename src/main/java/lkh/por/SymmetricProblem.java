@@ -0,0 +1,89 @@
+package lkh.por;
+
+import lkh.expression.Expression;
+import lkh.planning.Action;
+import lkh.planning.Problem;
+import lkh.planning.State;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+public interface SymmetricProblem extends Problem {
+  /**
+   * Map a state to a representative of its orbit under the symmetries of the problem.
+   * The representative is in the orbit of the state, but symmetric states are not guaranteed to get the same
+   * one. The symmetries fix the initial state, so it is its own representative.
+   * @param state a state of the problem
+   * @return the representative and the symmetry that maps the state to it
+   */
+  Representative canonicalState(State state);
+
+  /**
+   * Map a state to a representative of its orbit under the symmetries of the problem that look like the
+   * identity on another state, so that they usually leave it unchanged.
+   * @param state a state of the problem
+   * @param fixed the state that the symmetry should leave unchanged
+   * @return the representative and the symmetry that maps the state to it
+   */
+  Representative canonicalState(State state, State fixed);
+
+  /**
+   * Get permutations of the fluents that generate the symmetries used by canonicalState
+   * @return for each generator, the name of each fluent it moves mapped to the name of its image
+   */
+  List<Map<String, String>> symmetryGenerators();
+
+  /**
+   * Return whether the symmetries leave an expression unchanged, so it has the same truth value in symmetric
+   * states. Conjunctions and disjunctions are compared as sets of operands, so reordering them is allowed.
+   * @param expression an expression whose propositions name fluents
+   * @return true if every generator maps the expression to an equivalent one
+   */
+  default boolean isInvariant(Expression expression) {
+    Object normalForm = normalForm(expression, UnaryOperator.identity());
+    for (Map<String, String> generator : symmetryGenerators()) {
+      if (!normalForm.equals(normalForm(expression, name -> generator.getOrDefault(name, name)))) return false;
+    }
+    return true;
+  }
+
+  private static Object normalForm(Expression expression, UnaryOperator<String> rename) {
+    return switch (expression.getTokenType()) {
+      case PROP -> rename.apply(expression.getName());
+      case NOT -> List.of("not", normalForm(expression.getRight(), rename));
+      case AND, OR -> {
+        Set<Object> operands = new HashSet<>();
+        collectOperands(expression, expression.getTokenType(), rename, operands);
+        yield List.of(expression.getTokenType().name(), operands);
+      }
+      case IMPLIES, KH -> {
+        List<Object> form = new ArrayList<>();
+        form.add(expression.getTokenType().name());
+        form.add(normalForm(expression.getLeft(), rename));
+        form.add(normalForm(expression.getRight(), rename));
+        yield form;
+      }
+    };
+  }
+
+  private static void collectOperands(Expression expression, Object type, UnaryOperator<String> rename, Set<Object> operands) {
+    if (expression.getTokenType() != type) {
+      operands.add(normalForm(expression, rename));
+      return;
+    }
+    collectOperands(expression.getLeft(), type, rename, operands);
+    collectOperands(expression.getRight(), type, rename, operands);
+  }
+
+  /**
+   * A representative of an orbit and the symmetry that maps a state to it
+   * @param state the representative
+   * @param symmetry the image of each action under the symmetry
+   */
+  record Representative(State state, UnaryOperator<Action> symmetry) {
+  }
+}
@@ -0,0 +1,57 @@
+package lkh.utils;
+
+import java.util.function.Function;
+
+/**
+ * A map from keys to values that may drop entries at any time.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public interface Cache<K, V> {
+  /**
+   * Get the value cached for the key
+   * @param key the key to look up
+   * @return the cached value, or null if there is none
+   */
+  V get(K key);
+
+  /**
+   * Cache a value for the key, replacing the previous one
+   * @param key the key
+   * @param value the non null value to cache
+   */
+  void put(K key, V value);
+
+  /**
+   * Get the value cached for the key, computing and caching it if there is none
+   * @param key the key to look up
+   * @param mappingFunction the function that computes the value
+   * @return the cached or computed value
+   */
+  default V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    V value = get(key);
+    if (value == null) {
+      value = mappingFunction.apply(key);
+      put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Remove every entry of the cache. The statistics are kept.
+   */
+  void clear();
+
+  /**
+   * Get the number of entries in the cache
+   * @return the number of cached values
+   */
+  int size();
+
+  /**
+   * Get the usage statistics of the cache
+   * @return a snapshot of the statistics
+   */
+  CacheStats getStats();
+}
@@ -0,0 +1,16 @@
+package lkh.utils;
+
+/**
+ * Snapshot of the usage of a cache.
+ * @param hits the number of lookups that found a value
+ * @param misses the number of lookups that did not find a value
+ * @param evictions the number of entries dropped by the cache
+ * @param size the number of entries
+ * @param weight the total weight of the entries
+ */
+public record CacheStats(long hits, long misses, long evictions, int size, long weight) {
+  public double hitRate() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+}
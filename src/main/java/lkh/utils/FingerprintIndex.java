@@ -0,0 +1,46 @@
+package lkh.utils;
+
+/**
+ * Numbering of values by their 64-bit fingerprints alone.
+ * Only the fingerprints are stored, so values with the same fingerprint get the same number. This is hash
+ * compaction: with good 64-bit hashes a collision is very unlikely, and the memory taken by each value is
+ * a long and an int however large the value is.
+ */
+public class FingerprintIndex {
+  private final LongIdTable table;
+  private int size;
+
+  public FingerprintIndex() {
+    this(16);
+  }
+
+  /**
+   * @param expectedSize the number of fingerprints the index can hold before growing
+   */
+  public FingerprintIndex(int expectedSize) {
+    table = new LongIdTable(expectedSize);
+  }
+
+  /**
+   * @param fingerprint a fingerprint
+   * @return the number of the fingerprint, or -1 if it is not in the index
+   */
+  public int find(long fingerprint) {
+    return table.find(fingerprint, id -> true);
+  }
+
+  /**
+   * Add a fingerprint, which must not be in the index
+   * @param fingerprint the fingerprint
+   * @return the number given to the fingerprint
+   */
+  public int add(long fingerprint) {
+    int id = size++;
+    table.put(fingerprint, id);
+    return id;
+  }
+
+  public int size() {
+    return size;
+  }
+}
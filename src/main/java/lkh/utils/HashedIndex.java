@@ -0,0 +1,65 @@
+package lkh.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Numbering of values by their 64-bit hashes.
+ * Values are found by hash and a predicate instead of equals, so a value can be looked up before it is built,
+ * as long as its hash is known and the predicate can compare it with the stored ones.
+ * Values are numbered consecutively from 0 in the order they are added.
+ *
+ * @param <T> the type of the values
+ */
+public class HashedIndex<T> {
+  private final List<T> values = new ArrayList<>();
+  private final LongIdTable table;
+
+  public HashedIndex() {
+    this(16);
+  }
+
+  /**
+   * @param expectedSize the number of values the index can hold before growing
+   */
+  public HashedIndex(int expectedSize) {
+    table = new LongIdTable(expectedSize);
+  }
+
+  /**
+   * Find a value
+   * @param hash the hash of the value
+   * @param matches a predicate that is true for the value, called on the stored values with the same hash
+   * @return the number of the value, or -1 if it is not in the index
+   */
+  public int find(long hash, Predicate<? super T> matches) {
+    return table.find(hash, id -> matches.test(values.get(id)));
+  }
+
+  /**
+   * Add a value, which must not be in the index
+   * @param hash the hash of the value
+   * @param value the value
+   * @return the number given to the value
+   */
+  public int add(long hash, T value) {
+    int id = values.size();
+    values.add(value);
+    table.put(hash, id);
+    return id;
+  }
+
+  /**
+   * @param id the number of a value
+   * @return the value
+   * @throws IndexOutOfBoundsException if no value has that number
+   */
+  public T get(int id) {
+    return values.get(id);
+  }
+
+  public int size() {
+    return values.size();
+  }
+}
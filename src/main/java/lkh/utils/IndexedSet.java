@@ -0,0 +1,125 @@
+package lkh.utils;
+
+import lombok.NonNull;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set of values taken from a shared universe, stored as a bitset of their positions in it.
+ * Many sets over the same universe only take a few bits per value of the universe each, instead of an entry
+ * per member.
+ *
+ * @param <T> the type of the values
+ */
+public final class IndexedSet<T> extends AbstractSet<T> {
+  private final Universe<T> universe;
+  private final long[] words;
+  private final int size;
+
+  private IndexedSet(Universe<T> universe, long[] words) {
+    this.universe = universe;
+    this.words = words;
+    int count = 0;
+    for (long word : words) count += Long.bitCount(word);
+    this.size = count;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<>() {
+      private int next = nextSetBit(0);
+
+      @Override
+      public boolean hasNext() {
+        return next >= 0;
+      }
+
+      @Override
+      public T next() {
+        if (next < 0) throw new NoSuchElementException();
+        T value = universe.values.get(next);
+        next = nextSetBit(next + 1);
+        return value;
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    Integer id = universe.ids.get(o);
+    return id != null && get(id);
+  }
+
+  private boolean get(int bit) {
+    int word = bit >>> 6;
+    return word < words.length && (words[word] & (1L << bit)) != 0;
+  }
+
+  private int nextSetBit(int from) {
+    int word = from >>> 6;
+    if (word >= words.length) return -1;
+
+    long bits = words[word] & (-1L << from);
+    while (bits == 0) {
+      if (++word == words.length) return -1;
+      bits = words[word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(bits);
+  }
+
+  /**
+   * The values that the sets are taken from, each with its position
+   * @param <T> the type of the values
+   */
+  public static final class Universe<T> {
+    private final List<T> values;
+    private final Map<T, Integer> ids = new HashMap<>();
+
+    /**
+     * @param values the distinct values of the universe
+     * @throws IllegalArgumentException if a value is repeated
+     */
+    public Universe(@NonNull Collection<? extends T> values) {
+      this.values = new ArrayList<>(values);
+      for (int id = 0; id < this.values.size(); id++) {
+        if (ids.put(this.values.get(id), id) != null) {
+          throw new IllegalArgumentException("Repeated value: " + this.values.get(id));
+        }
+      }
+    }
+
+    /**
+     * Get the set with the given members
+     * @param members values of the universe
+     * @return an immutable set with the members
+     * @throws IllegalArgumentException if a member is not in the universe
+     */
+    public IndexedSet<T> of(@NonNull Iterable<? extends T> members) {
+      long[] words = new long[0];
+      int length = 0;
+      for (T member : members) {
+        Integer id = ids.get(member);
+        if (id == null) throw new IllegalArgumentException("Value not in universe: " + member);
+
+        int word = id >>> 6;
+        if (word >= words.length) words = Arrays.copyOf(words, Math.max(word + 1, 2 * words.length));
+        words[word] |= 1L << id;
+        length = Math.max(length, word + 1);
+      }
+      return new IndexedSet<>(this, length == words.length ? words : Arrays.copyOf(words, length));
+    }
+  }
+}
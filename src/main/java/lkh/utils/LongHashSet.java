@@ -0,0 +1,96 @@
+package lkh.utils;
+
+/**
+ * Set of primitive longs with open addressing and linear probing.
+ * Values are stored unboxed, so sets of encoded pairs of ints take a single array.
+ */
+public class LongHashSet {
+  private static final long EMPTY = 0;
+
+  private long[] table;
+  private boolean containsEmpty;
+  private int size;
+
+  public LongHashSet() {
+    this(16);
+  }
+
+  /**
+   * @param expectedSize the number of values the set can hold before growing
+   */
+  public LongHashSet(int expectedSize) {
+    if (expectedSize < 0) throw new IllegalArgumentException("expectedSize must be non-negative");
+
+    int capacity = 16;
+    while (capacity < 2L * expectedSize) capacity <<= 1;
+    table = new long[capacity];
+  }
+
+  /**
+   * Add a value to the set
+   * @param value the value
+   * @return true if the value was not in the set
+   */
+  public boolean add(long value) {
+    if (value == EMPTY) {
+      if (containsEmpty) return false;
+      containsEmpty = true;
+      size++;
+      return true;
+    }
+
+    int mask = table.length - 1;
+    int i = index(value, mask);
+    while (table[i] != EMPTY) {
+      if (table[i] == value) return false;
+      i = (i + 1) & mask;
+    }
+
+    table[i] = value;
+    if (++size * 2 > table.length) grow();
+    return true;
+  }
+
+  /**
+   * @param value a value
+   * @return true if the value is in the set
+   */
+  public boolean contains(long value) {
+    if (value == EMPTY) return containsEmpty;
+
+    int mask = table.length - 1;
+    int i = index(value, mask);
+    while (table[i] != EMPTY) {
+      if (table[i] == value) return true;
+      i = (i + 1) & mask;
+    }
+    return false;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private void grow() {
+    long[] old = table;
+    table = new long[old.length * 2];
+    int mask = table.length - 1;
+
+    for (long value : old) {
+      if (value == EMPTY) continue;
+
+      int i = index(value, mask);
+      while (table[i] != EMPTY) i = (i + 1) & mask;
+      table[i] = value;
+    }
+  }
+
+  private static int index(long value, int mask) {
+    long hash = value * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
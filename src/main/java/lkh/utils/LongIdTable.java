@@ -0,0 +1,79 @@
+package lkh.utils;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Hash table from 64-bit hashes to int ids, with open addressing and linear probing.
+ * Several ids may have the same hash; a lookup tells them apart with a predicate on the ids.
+ * The table doubles when it is half full.
+ */
+class LongIdTable {
+  static final int EMPTY = -1;
+
+  private long[] hashes;
+  private int[] ids;
+  private int size;
+
+  /**
+   * @param expectedSize the number of ids the table can hold before growing
+   */
+  LongIdTable(int expectedSize) {
+    if (expectedSize < 0) throw new IllegalArgumentException("expectedSize must be non-negative");
+
+    int capacity = 16;
+    while (capacity < 2L * expectedSize) capacity <<= 1;
+    hashes = new long[capacity];
+    ids = new int[capacity];
+    Arrays.fill(ids, EMPTY);
+  }
+
+  /**
+   * Find an id
+   * @param hash the hash of the id
+   * @param matches a predicate that is true for the id, called on the stored ids with the same hash
+   * @return the id, or -1 if it is not in the table
+   */
+  int find(long hash, IntPredicate matches) {
+    int mask = ids.length - 1;
+    for (int i = index(hash, mask); ids[i] != EMPTY; i = (i + 1) & mask) {
+      if (hashes[i] == hash && matches.test(ids[i])) return ids[i];
+    }
+    return EMPTY;
+  }
+
+  /**
+   * Add an id, which must not be in the table
+   * @param hash the hash of the id
+   * @param id a non-negative id
+   */
+  void put(long hash, int id) {
+    insert(hash, id);
+    if (++size * 2 > ids.length) grow();
+  }
+
+  private void insert(long hash, int id) {
+    int mask = ids.length - 1;
+    int i = index(hash, mask);
+    while (ids[i] != EMPTY) i = (i + 1) & mask;
+    hashes[i] = hash;
+    ids[i] = id;
+  }
+
+  private void grow() {
+    long[] oldHashes = hashes;
+    int[] oldIds = ids;
+    hashes = new long[oldHashes.length * 2];
+    ids = new int[oldIds.length * 2];
+    Arrays.fill(ids, EMPTY);
+
+    for (int i = 0; i < oldIds.length; i++) {
+      if (oldIds[i] != EMPTY) insert(oldHashes[i], oldIds[i]);
+    }
+  }
+
+  private static int index(long hash, int mask) {
+    long mixed = hash * 0x9E3779B97F4A7C15L;
+    return (int) (mixed ^ (mixed >>> 32)) & mask;
+  }
+}
@@ -0,0 +1,144 @@
+package lkh.utils;
+
+import lombok.NonNull;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Least recently used cache bounded by the total weight of its values.
+ * The weight of each value is given by a weigher when it is inserted. After an insertion, the least
+ * recently used entries are evicted until the total weight is at most the maximum weight.
+ * A value heavier than the maximum weight is not cached.
+ * Optionally, values are held through soft references so the garbage collector can reclaim them
+ * under memory pressure; reclaimed values count as evictions.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public class WeightedLruCache<K, V> implements Cache<K, V> {
+  private final long maxWeight;
+  private final ToLongFunction<? super V> weigher;
+  private final boolean softValues;
+  private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * @param maxWeight the maximum total weight of the cached values
+   * @param weigher a function giving the weight of a value
+   * @param softValues whether values are held through soft references
+   */
+  public WeightedLruCache(long maxWeight, @NonNull ToLongFunction<? super V> weigher, boolean softValues) {
+    if (maxWeight <= 0) throw new IllegalArgumentException("maxWeight must be positive");
+
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+    this.softValues = softValues;
+  }
+
+  public WeightedLruCache(long maxWeight, @NonNull ToLongFunction<? super V> weigher) {
+    this(maxWeight, weigher, false);
+  }
+
+  @Override
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    V value = entry == null ? null : entry.value();
+
+    if (value == null) {
+      if (entry != null) {
+        // The value was reclaimed by the garbage collector
+        remove(key, entry);
+        evictions++;
+      }
+      misses++;
+      return null;
+    }
+
+    hits++;
+    return value;
+  }
+
+  @Override
+  public synchronized void put(K key, @NonNull V value) {
+    Entry<V> previous = entries.remove(key);
+    if (previous != null) weight -= previous.weight();
+
+    long valueWeight = weigher.applyAsLong(value);
+    if (valueWeight > maxWeight) {
+      evictions++;
+      return;
+    }
+
+    entries.put(key, softValues ? new SoftEntry<>(value, valueWeight) : new StrongEntry<>(value, valueWeight));
+    weight += valueWeight;
+    evictEldest();
+  }
+
+  @Override
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  @Override
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  @Override
+  public synchronized CacheStats getStats() {
+    return new CacheStats(hits, misses, evictions, entries.size(), weight);
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  private void evictEldest() {
+    Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+    while (weight > maxWeight && iterator.hasNext()) {
+      weight -= iterator.next().getValue().weight();
+      iterator.remove();
+      evictions++;
+    }
+  }
+
+  private void remove(K key, Entry<V> entry) {
+    entries.remove(key);
+    weight -= entry.weight();
+  }
+
+  private interface Entry<V> {
+    V value();
+
+    long weight();
+  }
+
+  private record StrongEntry<V>(V value, long weight) implements Entry<V> {}
+
+  private static final class SoftEntry<V> extends SoftReference<V> implements Entry<V> {
+    private final long weight;
+
+    SoftEntry(V value, long weight) {
+      super(value);
+      this.weight = weight;
+    }
+
+    @Override
+    public V value() {
+      return get();
+    }
+
+    @Override
+    public long weight() {
+      return weight;
+    }
+  }
+}
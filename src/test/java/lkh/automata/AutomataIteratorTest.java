@@ -115,4 +115,56 @@ class AutomataIteratorTest {
 
     assertEquals(expected, strings);
   }
+
+  @Test
+  void testLongPathWithBackEdges() {
+    GraphDeterministicAutomaton<Integer, Character> automaton = new GraphDeterministicAutomaton<>();
+    // 0 -a-> 1 -a-> ... -a-> [70], every state also goes back to 0 with 'b'
+    automaton.setInitialState(0);
+    automaton.addFinalState(70);
+    for (int i = 0; i < 70; i++) {
+      automaton.addTransition(i, i + 1, 'a');
+      automaton.addTransition(i + 1, 0, 'b');
+    }
+
+    AutomataIterator<Integer, Character> iterator = new AutomataIterator<>(automaton, 100);
+
+    assertTrue(iterator.hasNext());
+    assertEquals(Collections.nCopies(70, 'a'), iterator.next());
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  void testInterleavedLongPaths() {
+    GraphDeterministicAutomaton<Integer, Character> automaton = new GraphDeterministicAutomaton<>();
+    // Two chains 0 -a-> 1 -a-> ... -a-> [200] and 0 -c-> 101 -c-> ... -c-> [200], every state goes back to 0
+    // with 'b', and the final state goes on to the second chain with 'd'
+    automaton.setInitialState(0);
+    automaton.addFinalState(200);
+    for (int i = 0; i < 80; i++) {
+      int a = i == 0 ? 0 : i;
+      int c = i == 0 ? 0 : 100 + i;
+      automaton.addTransition(a, i == 79 ? 200 : i + 1, 'a');
+      automaton.addTransition(c, i == 79 ? 200 : 101 + i, 'c');
+      if (i > 0) {
+        automaton.addTransition(a, 0, 'b');
+        automaton.addTransition(c, 0, 'b');
+      }
+    }
+    automaton.addTransition(200, 101, 'd');
+
+    AutomataIterator<Integer, Character> iterator = new AutomataIterator<>(automaton, 200);
+    Set<List<Character>> strings = new HashSet<>();
+    iterator.forEachRemaining(strings::add);
+
+    assertEquals(Set.of(Collections.nCopies(80, 'a'), Collections.nCopies(80, 'c')), strings);
+  }
+
+  @Test
+  void testStoppedSearchCanBeResumed() {
+    AutomataIterator<Integer, Character> iterator = new AutomataIterator<>(automaton, 3);
+
+    assertNull(iterator.nextEncoded(symbol -> symbol, () -> true));
+    assertArrayEquals(new int[]{'b'}, iterator.nextEncoded(symbol -> symbol, () -> false));
+  }
 }
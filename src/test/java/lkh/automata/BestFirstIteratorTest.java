@@ -0,0 +1,115 @@
+package lkh.automata;
+
+import lkh.automata.impl.AutomataIterator;
+import lkh.automata.impl.BestFirstIterator;
+import lkh.automata.impl.GraphDeterministicAutomaton;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BestFirstIteratorTest {
+  private GraphDeterministicAutomaton<Integer, Character> automaton;
+
+  @BeforeEach
+  void setUp() {
+    automaton = new GraphDeterministicAutomaton<>();
+
+    automaton.setInitialState(0);
+    automaton.addFinalState(2);
+    automaton.addFinalState(3);
+
+    automaton.addTransition(0, 1, 'a');
+    automaton.addTransition(0, 2, 'b');
+    automaton.addTransition(1, 3, 'c');
+    automaton.addTransition(3, 1, 'a');
+    automaton.addTransition(3, 2, 'b');
+    automaton.addTransition(2, 1, 'a');
+    automaton.addTransition(2, 2, 'b');
+  }
+
+  @Test
+  void testIncreasingLength() {
+    BestFirstIterator<Integer, Character> iterator = new BestFirstIterator<>(automaton, 3);
+
+    assertEquals(List.of('b'), iterator.next());
+    assertEquals(List.of('a', 'c'), iterator.next());
+
+    Set<List<Character>> longest = new HashSet<>();
+    iterator.forEachRemaining(longest::add);
+    assertEquals(Set.of(List.of('a', 'c', 'b'), List.of('b', 'a', 'c')), longest);
+    assertFalse(iterator.hasNext());
+    assertNull(iterator.next());
+  }
+
+  @Test
+  void testSameStringsAsAutomataIterator() {
+    Set<List<Character>> expected = new HashSet<>();
+    new AutomataIterator<>(automaton, 5).forEachRemaining(expected::add);
+
+    Set<List<Character>> actual = new HashSet<>();
+    new BestFirstIterator<>(automaton, 5).forEachRemaining(actual::add);
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void testDeadBranchesAreSkipped() {
+    GraphDeterministicAutomaton<Integer, Character> automaton = new GraphDeterministicAutomaton<>();
+    // 0 -b-> 1 -a-> 2 -a-> [3] and a dead cycle 0 -a-> 4 -a-> 5 -a-> 4
+    automaton.setInitialState(0);
+    automaton.addFinalState(3);
+    automaton.addTransition(0, 1, 'b');
+    automaton.addTransition(1, 2, 'a');
+    automaton.addTransition(2, 3, 'a');
+    automaton.addTransition(0, 4, 'a');
+    automaton.addTransition(4, 5, 'a');
+    automaton.addTransition(5, 4, 'a');
+
+    BestFirstIterator<Integer, Character> iterator = new BestFirstIterator<>(automaton, 100);
+
+    assertEquals(List.of('b', 'a', 'a'), iterator.next());
+    assertFalse(iterator.hasNext());
+    assertFalse(new BestFirstIterator<>(automaton, 2).hasNext());
+  }
+
+  @Test
+  void testEmptyAutomaton() {
+    GraphDeterministicAutomaton<Integer, Character> emptyAutomaton = new GraphDeterministicAutomaton<>();
+    emptyAutomaton.setInitialState(0);
+
+    BestFirstIterator<Integer, Character> iterator = new BestFirstIterator<>(emptyAutomaton, 2);
+
+    assertFalse(iterator.hasNext());
+    assertNull(iterator.next());
+  }
+
+  @Test
+  void testCheapestFirst() {
+    GraphDeterministicAutomaton<Integer, Character> automaton = new GraphDeterministicAutomaton<>();
+    // 0 -b-> [3] and 0 -a-> 1 -a-> 2 -a-> [3]
+    automaton.setInitialState(0);
+    automaton.addFinalState(3);
+    automaton.addTransition(0, 3, 'b');
+    automaton.addTransition(0, 1, 'a');
+    automaton.addTransition(1, 2, 'a');
+    automaton.addTransition(2, 3, 'a');
+
+    Map<Character, Double> costs = Map.of('a', 1.0, 'b', 5.0);
+    BestFirstIterator<Integer, Character> iterator = new BestFirstIterator<>(automaton, 10, costs::get);
+
+    assertEquals(List.of('a', 'a', 'a'), iterator.next());
+    assertEquals(List.of('b'), iterator.next());
+    assertFalse(iterator.hasNext());
+
+    // The cheapest plan must also fit in the length limit
+    assertEquals(List.of('b'), new BestFirstIterator<>(automaton, 2, costs::get).next());
+  }
+
+  @Test
+  void testNegativeCost() {
+    assertThrows(IllegalArgumentException.class, () -> new BestFirstIterator<>(automaton, 3, symbol -> -1));
+  }
+}
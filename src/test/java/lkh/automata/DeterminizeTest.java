@@ -1,6 +1,7 @@
 package lkh.automata;
 
 import lkh.automata.impl.AutomataOperations;
+import lkh.automata.impl.GraphNonDeterministicAutomaton;
 import lkh.dot.DotReader;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -163,6 +164,47 @@ public class DeterminizeTest {
     assertThrows(IllegalStateException.class, () -> AutomataOperations.asDeterministic(input));
   }
 
+  // ALPHABET: {a,b}
+  // LANGUAGE: {a,b}*a{a,b}^5  (the sixth symbol from the end is "a")
+  // The subset construction reaches all 2^6 subsets of the last six positions.
+  @Test
+  public void sixthFromEndDeterminizeSize() {
+    var input = new GraphNonDeterministicAutomaton<Integer, String>();
+    input.setInitialState(0);
+    input.addTransition(0, 0, "a");
+    input.addTransition(0, 0, "b");
+    input.addTransition(0, 1, "a");
+    for (int i = 1; i < 6; i++) {
+      input.addTransition(i, i + 1, "a");
+      input.addTransition(i, i + 1, "b");
+    }
+    input.addFinalState(6);
+
+    var result = AutomataOperations.determinize(input);
+    assertEquals(64, result.getStates().size());
+    assertEquals(true, result.evaluate(toWord("babbbbb")));
+    assertEquals(false, result.evaluate(toWord("abbbbbb")));
+  }
+
+  // ALPHABET: {a}
+  // LANGUAGE: a*
+  // A chain of 100 states joined by λ-transitions, so the closure of the initial state spans several words.
+  @Test
+  public void longLambdaChainDeterminize() {
+    var input = new GraphNonDeterministicAutomaton<Integer, String>();
+    input.setInitialState(0);
+    for (int i = 0; i < 99; i++) {
+      input.addEmptyTransition(i, i + 1);
+    }
+    input.addTransition(99, 0, "a");
+    input.addFinalState(99);
+
+    var result = AutomataOperations.determinize(input);
+    assertEquals(1, result.getStates().size());
+    assertEquals(true, result.evaluate(toWord("")));
+    assertEquals(true, result.evaluate(toWord("aaa")));
+  }
+
   private List<String> toWord(String s) {
     return s.isEmpty() ? Collections.emptyList() : Arrays.asList(s.split(""));
   }
@@ -139,6 +139,34 @@ public class GraphNonDeterministicAutomatonTest {
     assertEquals(expectedStates, actualStates);
   }
 
+  @Test
+  public void testLambdaClosureOfCycle() {
+    GraphNonDeterministicAutomaton<Integer, String> automaton = new GraphNonDeterministicAutomaton<>();
+    automaton.addEmptyTransition(0, 1);
+    automaton.addEmptyTransition(1, 2);
+    automaton.addEmptyTransition(2, 0);
+    automaton.addEmptyTransition(2, 3);
+    automaton.addTransition(3, 4, "a");
+
+    assertEquals(Set.of(0, 1, 2, 3), automaton.lambdaClosure(1));
+    assertEquals(Set.of(3), automaton.lambdaClosure(3));
+    assertThrows(UnsupportedOperationException.class, () -> automaton.lambdaClosure(0).add(4));
+  }
+
+  @Test
+  public void testLambdaClosureAfterAddingTransitions() {
+    Set<String> closure = nfa.lambdaClosure("q1");
+
+    nfa.addState("extra");
+    assertEquals(Set.of("extra"), nfa.lambdaClosure("extra"));
+
+    nfa.addEmptyTransition("extra", "q1");
+    Set<String> expected = new HashSet<>(closure);
+    expected.add("extra");
+    assertEquals(expected, nfa.lambdaClosure("extra"));
+    assertThrows(IllegalArgumentException.class, () -> nfa.lambdaClosure("notAState"));
+  }
+
   @ParameterizedTest
   @MethodSource("provideArgsForSetLambdaClosure")
   public void testLambdaClosureFromSet(Set<String> states, Set<String> expectedStates) {
@@ -3,6 +3,7 @@ package lkh.automata;
 import lkh.automata.impl.AutomataOperations;
 import lkh.automata.impl.GraphDeterministicAutomaton;
 import lkh.automata.impl.GraphNonDeterministicAutomaton;
+import lkh.automata.impl.ProductAutomaton;
 import lkh.dot.DotReader;
 import lkh.dot.DotWriter;
 import org.junit.jupiter.api.Test;
@@ -431,6 +432,59 @@ public class IntersectionTest {
     return AutomataOperations.intersection(a, b);
   }
 
+  // intersectionIsEmpty(DFA, DFA)
+
+  // Verifies that the on-the-fly emptiness check agrees with the built intersection,
+  // both for string states and for integer states encoded as longs
+  @ParameterizedTest
+  @CsvSource({"aplus_bplus,true", "even_a_even_b,false", "ends_a_ends_b,true", "astar_aplus,false", "acb_plus_bstar,false"})
+  public void intersectionIsEmpty(String folder, boolean expected) throws FileNotFoundException {
+    var dfa1 = DotReader.readDFA(BASE + "/dfa_dfa/" + folder + "/dfa1.dot");
+    var dfa2 = DotReader.readDFA(BASE + "/dfa_dfa/" + folder + "/dfa2.dot");
+
+    assertEquals(expected, AutomataOperations.intersection(dfa1, dfa2).isEmpty());
+    assertEquals(expected, AutomataOperations.intersectionIsEmpty(dfa1, dfa2));
+    assertEquals(expected, AutomataOperations.intersectionIsEmpty(
+        AutomataOperations.toIntegerStates(dfa1), AutomataOperations.toIntegerStates(dfa2)));
+  }
+
+  // Verifies the transitions of the lazy product
+  @Test
+  public void productAutomatonDelta() throws FileNotFoundException {
+    var dfa1 = DotReader.readDFA(BASE + "/dfa_dfa/even_a_even_b/dfa1.dot");
+    var dfa2 = DotReader.readDFA(BASE + "/dfa_dfa/even_a_even_b/dfa2.dot");
+    var product = new ProductAutomaton<>(dfa1, dfa2);
+
+    var state = product.getInitialState();
+    for (String symbol : toWord("aabb")) {
+      state = product.delta(state, symbol).orElseThrow();
+    }
+    assertTrue(product.isFinal(state));
+
+    state = product.delta(product.getInitialState(), "a").orElseThrow();
+    assertFalse(product.isFinal(product.delta(state, "b").orElseThrow()));
+    assertTrue(product.delta(state, "c").isEmpty());
+  }
+
+  // Verifies that both searches report the same explored size, which covers the whole product when it is empty
+  @ParameterizedTest
+  @CsvSource({"aplus_bplus", "even_a_even_b", "ends_a_ends_b", "astar_aplus"})
+  public void productAutomatonExploredSize(String folder) throws FileNotFoundException {
+    var dfa1 = DotReader.readDFA(BASE + "/dfa_dfa/" + folder + "/dfa1.dot");
+    var dfa2 = DotReader.readDFA(BASE + "/dfa_dfa/" + folder + "/dfa2.dot");
+    var product = new ProductAutomaton<>(dfa1, dfa2);
+    var encoded = new ProductAutomaton<>(AutomataOperations.toIntegerStates(dfa1), AutomataOperations.toIntegerStates(dfa2));
+
+    boolean empty = product.isEmpty();
+    encoded.isEmpty();
+
+    assertEquals(product.getExploredSize(), encoded.getExploredSize());
+    assertTrue(product.getExploredSize().key() >= 1);
+    if (empty) {
+      assertTrue(product.getExploredSize().key() >= AutomataOperations.trim(AutomataOperations.intersection(dfa1, dfa2)).automaton().getSize().key());
+    }
+  }
+
   private List<String> toWord(String s) {
     return s.isEmpty() ? Collections.emptyList() : Arrays.asList(s.split(""));
   }
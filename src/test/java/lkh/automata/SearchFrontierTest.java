@@ -0,0 +1,62 @@
+package lkh.automata;
+
+import lkh.automata.impl.SearchFrontier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchFrontierTest {
+  @Test
+  void testBreadthFirst() {
+    SearchFrontier<String> frontier = new SearchFrontier<>();
+
+    assertEquals(0, frontier.discover("a"));
+    assertEquals(1, frontier.discover("b"));
+    assertEquals(0, frontier.discover("a"));
+    assertEquals(2, frontier.discover("c"));
+
+    assertEquals("a", frontier.next());
+    assertEquals("b", frontier.next());
+    assertEquals("c", frontier.next());
+    assertTrue(frontier.isEmpty());
+    assertEquals(3, frontier.discoveredCount());
+  }
+
+  @Test
+  void testDepthFirst() {
+    SearchFrontier<String> frontier = new SearchFrontier<>(SearchFrontier.Order.DEPTH_FIRST);
+    frontier.discover("a");
+    frontier.discover("b");
+
+    assertEquals("b", frontier.next());
+    frontier.discover("c");
+    assertEquals("c", frontier.next());
+    assertEquals("a", frontier.next());
+  }
+
+  @Test
+  void testStatesAreExpandedOnce() {
+    List<String> expanded = new ArrayList<>();
+    SearchFrontier<String> frontier = new SearchFrontier<>(SearchFrontier.Order.BREADTH_FIRST,
+        new SearchFrontier.Listener<>() {
+          @Override
+          public void expanded(String state, int id) {
+            expanded.add(state + id);
+          }
+        });
+
+    frontier.discover("a");
+    while (!frontier.isEmpty()) {
+      frontier.next();
+      frontier.discover("a");
+      frontier.discover("b");
+    }
+
+    assertEquals(List.of("a0", "b1"), expanded);
+    assertTrue(frontier.isDiscovered("b"));
+    assertThrows(IllegalArgumentException.class, () -> frontier.id("c"));
+  }
+}
@@ -0,0 +1,69 @@
+package lkh.automata;
+
+import lkh.automata.impl.AutomataOperations;
+import lkh.automata.impl.GraphDeterministicAutomaton;
+import lkh.automata.impl.TrimResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link AutomataOperations#trim}.
+ */
+public class TrimTest {
+
+  // 0 -a-> 1 -b-> 2 (final), 1 -a-> 3 (dead end), 4 -a-> 2 (unreachable)
+  @Test
+  public void trimRemovesDeadAndUnreachableStates() {
+    GraphDeterministicAutomaton<Integer, String> automaton = new GraphDeterministicAutomaton<>();
+    automaton.setInitialState(0);
+    automaton.addTransition(0, 1, "a");
+    automaton.addTransition(1, 2, "b");
+    automaton.addTransition(1, 3, "a");
+    automaton.addTransition(4, 2, "a");
+    automaton.addFinalState(2);
+
+    TrimResult<Integer, String> result = AutomataOperations.trim(automaton);
+
+    assertEquals(Set.of(0, 1, 2), result.automaton().getStates());
+    assertEquals(2, result.removedStates());
+    assertEquals(2, result.removedTransitions());
+    assertTrue(result.automaton().evaluate(List.of("a", "b")));
+    assertFalse(result.automaton().evaluate(List.of("a", "a")));
+  }
+
+  // Nothing to remove: the same automaton is returned
+  @Test
+  public void trimKeepsTrimAutomaton() {
+    GraphDeterministicAutomaton<Integer, String> automaton = new GraphDeterministicAutomaton<>();
+    automaton.setInitialState(0);
+    automaton.addTransition(0, 0, "a");
+    automaton.addFinalState(0);
+
+    TrimResult<Integer, String> result = AutomataOperations.trim(automaton);
+
+    assertSame(automaton, result.automaton());
+    assertEquals(0, result.removedStates());
+    assertEquals(0, result.removedTransitions());
+  }
+
+  // Empty language: only the initial state is left
+  @Test
+  public void trimEmptyLanguage() {
+    GraphDeterministicAutomaton<Integer, String> automaton = new GraphDeterministicAutomaton<>();
+    automaton.setInitialState(0);
+    automaton.addTransition(0, 1, "a");
+    automaton.addTransition(1, 0, "b");
+
+    TrimResult<Integer, String> result = AutomataOperations.trim(automaton);
+
+    assertEquals(Set.of(0), result.automaton().getStates());
+    assertEquals(0, result.automaton().getInitialState());
+    assertTrue(result.automaton().isEmpty());
+    assertEquals(1, result.removedStates());
+    assertEquals(2, result.removedTransitions());
+  }
+}
@@ -0,0 +1,99 @@
+package lkh.expression;
+
+import lkh.expression.parser.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpressionFactoryTest {
+  @Test
+  void testFactoriesShareNodes() {
+    Expression first = Expression.and(Expression.prop("p"), Expression.prop("q"));
+    Expression second = Expression.and(Expression.prop("p"), Expression.prop("q"));
+
+    assertSame(first, second);
+    assertSame(first.getLeft(), Expression.prop("p"));
+    assertTrue(first.isInterned());
+  }
+
+  @Test
+  void testParsedExpressionsAreInterned() throws ParseException {
+    Expression parsed = Expression.of("kh(p and q, not r)");
+    Expression built = Expression.kh(
+        Expression.and(Expression.prop("p"), Expression.prop("q")),
+        Expression.prop("r").not()
+    );
+
+    assertSame(built, parsed);
+  }
+
+  @Test
+  void testInternEqualsPlainExpression() {
+    Expression plain = new Expression(ExpressionType.OR, "or",
+        new Expression(ExpressionType.PROP, "p"),
+        new Expression(ExpressionType.PROP, "q"));
+    Expression interned = ExpressionFactory.getInstance().intern(plain);
+
+    assertFalse(plain.isInterned());
+    assertEquals(plain, interned);
+    assertEquals(plain.hashCode(), interned.hashCode());
+    assertSame(Expression.or(Expression.prop("p"), Expression.prop("q")), interned);
+  }
+
+  @Test
+  void testDifferentExpressionsAreNotEqual() {
+    assertNotEquals(Expression.prop("p"), Expression.prop("q"));
+    assertNotEquals(Expression.and(Expression.prop("p"), Expression.prop("q")),
+        Expression.and(Expression.prop("q"), Expression.prop("p")));
+    assertNotEquals(new Expression(ExpressionType.PROP, "p"), Expression.prop("p").not());
+  }
+
+  @Test
+  void testSizeOfSharedDag() {
+    Expression p = Expression.prop("p");
+    Expression and = Expression.and(p, p, p);
+
+    assertEquals(5, and.getSize());
+    assertSame(p, and.getRight());
+    assertSame(p, and.getLeft().getRight());
+  }
+
+  @Test
+  void testUnusedExpressionsAreCollected() throws InterruptedException {
+    WeakReference<Expression> reference = new WeakReference<>(Expression.prop("collected").not());
+    for (int i = 0; i < 50 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    // The factory doesn't keep the node alive, and building it again gives an equal node
+    assertNull(reference.get());
+    assertEquals(new Expression(ExpressionType.NOT, "not", null, new Expression(ExpressionType.PROP, "collected")),
+        Expression.prop("collected").not());
+  }
+
+  @Test
+  void testConcurrentFactoriesShareNodes() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Expression>> futures = executor.invokeAll(List.of(
+          () -> Expression.kh(Expression.prop("concurrent"), Expression.prop("q")),
+          () -> Expression.kh(Expression.prop("concurrent"), Expression.prop("q")),
+          () -> Expression.kh(Expression.prop("concurrent"), Expression.prop("q")),
+          () -> Expression.kh(Expression.prop("concurrent"), Expression.prop("q"))
+      ));
+      Expression first = futures.get(0).get();
+      for (Future<Expression> future : futures) {
+        assertSame(first, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package lkh.graph;
+
+import lkh.graph.edge.DefaultEdge;
+import lkh.graph.edge.DefaultLabeledEdge;
+import lkh.graph.edge.Edge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BidirectionalHashMapDirectedGraphTest {
+  private BidirectionalHashMapDirectedGraph<String, Edge<String>> graph;
+
+  @BeforeEach
+  public void setUp() {
+    graph = new BidirectionalHashMapDirectedGraph<>();
+    graph.addVertex("A");
+    graph.addEdge(new DefaultEdge<>("A", "B"));
+    graph.addEdge(new DefaultEdge<>("C", "B"));
+    graph.addEdge(new DefaultEdge<>("B", "C"));
+  }
+
+  @Test
+  public void testIncomingQueries() {
+    assertEquals(2, graph.getInDegree("B"));
+    assertEquals(Set.of("A", "C"), new HashSet<>(graph.getIncomingNeighbors("B")));
+    assertEquals(0, graph.getInDegree("A"));
+    assertEquals(List.of(), graph.getIncomingNeighbors("A"));
+    assertEquals(List.of(new DefaultEdge<>("B", "C")), graph.getIncomingEdges("C"));
+  }
+
+  @Test
+  public void testRemoveEdge() {
+    assertTrue(graph.removeEdge(new DefaultEdge<>("A", "B")));
+    assertFalse(graph.removeEdge(new DefaultEdge<>("A", "B")));
+
+    assertEquals(List.of("C"), graph.getIncomingNeighbors("B"));
+  }
+
+  @Test
+  public void testRemoveOutgoingEdgesIf() {
+    graph.addEdge(new DefaultLabeledEdge<>("A", "C", "x"));
+    graph.removeOutgoingEdgesIf("A", edge -> edge.getTarget().equals("B"));
+
+    assertEquals(List.of("C"), graph.getIncomingNeighbors("B"));
+    assertEquals(Set.of("A", "B"), new HashSet<>(graph.getIncomingNeighbors("C")));
+  }
+
+  @Test
+  public void testSameAnswersAsHashMapDirectedGraph() {
+    HashMapDirectedGraph<String, Edge<String>> plain = new HashMapDirectedGraph<>();
+    for (String vertex : graph.getVertices()) {
+      plain.addVertex(vertex);
+      graph.getOutgoingEdges(vertex).forEach(plain::addEdge);
+    }
+
+    for (String vertex : graph.getVertices()) {
+      assertEquals(plain.getInDegree(vertex), graph.getInDegree(vertex));
+      assertEquals(new HashSet<>(plain.getIncomingNeighbors(vertex)), new HashSet<>(graph.getIncomingNeighbors(vertex)));
+    }
+  }
+
+  @Test
+  public void testUnknownVertex() {
+    assertEquals(0, graph.getInDegree("Z"));
+    assertThrows(IllegalArgumentException.class, () -> graph.getIncomingEdges("Z"));
+  }
+}
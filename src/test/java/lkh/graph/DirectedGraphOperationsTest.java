@@ -61,6 +61,22 @@ public class DirectedGraphOperationsTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void testGetSCCsDeepGraph() {
+    // A cycle of 200000 vertices would overflow the stack of a recursive implementation
+    int size = 200000;
+    DirectedGraph<Integer, DefaultEdge<Integer>> graph = new HashMapDirectedGraph<>();
+    for (int i = 0; i < size; i++) {
+      graph.addEdge(new DefaultEdge<>(i, (i + 1) % size));
+    }
+    graph.addEdge(new DefaultEdge<>(0, size));
+
+    Set<Set<Integer>> actual = DirectedGraphOperations.getSCCs(graph);
+
+    assertEquals(2, actual.size());
+    assertTrue(actual.contains(Set.of(size)));
+  }
+
   @Test
   public void testTopologicalSort1() {
     DirectedGraph<Integer, DefaultEdge<Integer>> graph = new HashMapDirectedGraph<>();
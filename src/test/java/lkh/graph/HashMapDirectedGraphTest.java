@@ -5,6 +5,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import lkh.graph.edge.Edge;
 
+import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 import java.util.List;
 import java.util.stream.Stream;
@@ -162,6 +164,26 @@ public class HashMapDirectedGraphTest {
     assertEquals(expectedNeighbors, graph.getIncomingNeighbors(vertex));
   }
 
+  @Test
+  public void testForEachOutgoing() {
+    Set<String> targets = new HashSet<>();
+    graph.forEachOutgoing("B", edge -> targets.add(edge.getTarget()));
+    assertEquals(Set.of("C", "D"), targets);
+
+    targets.clear();
+    graph.forEachOutgoing("E", edge -> !edge.getTarget().equals("A"), edge -> targets.add(edge.getTarget()));
+    assertEquals(Set.of("G"), targets);
+
+    assertThrows(IllegalArgumentException.class, () -> graph.forEachOutgoing("Z", edge -> {}));
+  }
+
+  @Test
+  public void testFindOutgoing() {
+    assertEquals(Optional.of("D"), graph.findOutgoing("B", edge -> edge.getTarget().equals("D")).map(Edge::getTarget));
+    assertEquals(Optional.empty(), graph.findOutgoing("A", edge -> edge.getTarget().equals("D")));
+    assertThrows(IllegalArgumentException.class, () -> graph.findOutgoing("Z", edge -> true));
+  }
+
   private static Stream<Arguments> provideIncomingNeighborsData() {
     return Stream.of(
         Arguments.of("G", List.of("E")),
@@ -0,0 +1,182 @@
+package lkh.graph;
+
+import lkh.automata.impl.AutomatonEdge;
+import lkh.automata.impl.GraphDeterministicAutomaton;
+import lkh.graph.edge.DefaultEdge;
+import lkh.lts.HashMapLTS;
+import lkh.lts.LTS;
+import lkh.lts.LTSEdge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntDirectedGraphTest {
+  private IntDirectedGraph<String, LTSEdge<Integer, String>> graph;
+
+  @BeforeEach
+  public void setUp() {
+    graph = new IntDirectedGraph<>(LTSEdge::getAction, LTSEdge::new);
+    graph.addEdge(0, 1, "a");
+    graph.addEdge(0, 2, "a");
+    graph.addEdge(1, 2, "b");
+    graph.addEdge(new LTSEdge<>(2, 0, "c"));
+  }
+
+  @Test
+  public void testStructure() {
+    assertEquals(Set.of(0, 1, 2), graph.getVertices());
+    assertEquals(3, graph.vertexCount());
+    assertEquals(4, graph.edgeCount());
+    assertEquals(2, graph.getOutDegree(0));
+    assertEquals(2, graph.getInDegree(2));
+    assertTrue(graph.containsEdge(1, 2));
+    assertFalse(graph.containsEdge(2, 1));
+    assertFalse(graph.containsVertex(5));
+  }
+
+  @Test
+  public void testDuplicateEdge() {
+    assertFalse(graph.addEdge(0, 1, "a"));
+    assertTrue(graph.addEdge(0, 1, "b"));
+    assertEquals(5, graph.edgeCount());
+  }
+
+  @Test
+  public void testForEachOutgoing() {
+    Map<Integer, String> visited = new HashMap<>();
+    graph.forEachOutgoing(0, visited::put);
+
+    assertEquals(Map.of(1, "a", 2, "a"), visited);
+    for (int i = 0; i < graph.outDegree(1); i++) {
+      assertEquals(2, graph.target(1, i));
+      assertEquals("b", graph.label(1, i));
+    }
+  }
+
+  @Test
+  public void testForEachTarget() {
+    Set<Integer> targets = new HashSet<>();
+    graph.forEachTarget(0, "a", targets::add);
+    assertEquals(Set.of(1, 2), targets);
+
+    targets.clear();
+    graph.forEachTarget(0, "b", targets::add);
+    assertTrue(targets.isEmpty());
+  }
+
+  @Test
+  public void testForEachOutgoingEdge() {
+    List<LTSEdge<Integer, String>> edges = new ArrayList<>();
+    graph.forEachOutgoing((Integer) 1, edges::add);
+    assertEquals(List.of(new LTSEdge<>(1, 2, "b")), edges);
+
+    assertEquals(Optional.of(new LTSEdge<>(2, 0, "c")), graph.findOutgoing(2, edge -> edge.getAction().equals("c")));
+    assertThrows(IllegalArgumentException.class, () -> graph.findOutgoing(7, edge -> true));
+  }
+
+  @Test
+  public void testEdgesAreRebuilt() {
+    assertEquals(Set.of(new LTSEdge<>(0, 1, "a"), new LTSEdge<>(0, 2, "a")), new HashSet<>(graph.getOutgoingEdges(0)));
+  }
+
+  @Test
+  public void testRemoveEdges() {
+    assertTrue(graph.removeEdge(new LTSEdge<>(0, 1, "a")));
+    assertFalse(graph.removeEdge(0, 1, "a"));
+    graph.removeOutgoingEdgesIf(2, edge -> edge.getAction().equals("c"));
+
+    assertEquals(List.of(2), graph.getOutgoingNeighbors(0));
+    assertEquals(0, graph.getOutDegree(2));
+    assertEquals(2, graph.edgeCount());
+  }
+
+  @Test
+  public void testEquals() {
+    IntDirectedGraph<String, LTSEdge<Integer, String>> other = new IntDirectedGraph<>(LTSEdge::getAction, LTSEdge::new);
+    other.addEdge(2, 0, "c");
+    other.addEdge(1, 2, "b");
+    other.addEdge(0, 2, "a");
+    other.addEdge(0, 1, "a");
+
+    assertEquals(graph, other);
+    assertEquals(graph.hashCode(), other.hashCode());
+    other.addEdge(0, 1, "b");
+    assertNotEquals(graph, other);
+  }
+
+  @Test
+  public void testHighOutDegree() {
+    IntDirectedGraph<String, LTSEdge<Integer, String>> star = new IntDirectedGraph<>(LTSEdge::getAction, LTSEdge::new);
+    IntDirectedGraph<String, LTSEdge<Integer, String>> reversed = new IntDirectedGraph<>(LTSEdge::getAction, LTSEdge::new);
+    int n = 1000;
+    for (int i = 1; i <= n; i++) {
+      assertTrue(star.addEdge(0, i, "a" + (i % 7)));
+      assertTrue(star.addEdge(0, i, "b"));
+    }
+    for (int i = n; i >= 1; i--) {
+      reversed.addEdge(0, i, "b");
+      reversed.addEdge(0, i, "a" + (i % 7));
+    }
+
+    assertFalse(star.addEdge(0, n, "b"));
+    assertEquals(2 * n, star.outDegree(0));
+    assertEquals(reversed, star);
+
+    // Removing edges moves others around, which must stay reachable through the index
+    for (int i = 1; i <= n; i += 2) {
+      assertTrue(star.removeEdge(0, i, "b"));
+      assertFalse(star.removeEdge(0, i, "b"));
+    }
+    star.removeOutgoingEdgesIf(0, edge -> edge.getTarget() % 3 == 0);
+    for (int i = 1; i <= n; i++) {
+      assertEquals(i % 3 != 0, star.removeEdge(0, i, "a" + (i % 7)));
+      assertEquals(i % 2 == 0 && i % 3 != 0, star.removeEdge(0, i, "b"));
+    }
+    assertEquals(0, star.outDegree(0));
+    assertTrue(star.addEdge(0, 1, "b"));
+  }
+
+  @Test
+  public void testPlainEdges() {
+    IntDirectedGraph<Void, DefaultEdge<Integer>> plain = new IntDirectedGraph<>(edge -> null, (source, target, label) -> new DefaultEdge<>(source, target));
+    plain.addEdge(new DefaultEdge<>(0, 1));
+    plain.addEdge(new DefaultEdge<>(0, 1));
+    plain.addEdge(new DefaultEdge<>(1, 0));
+
+    assertEquals(Set.of(Set.of(0, 1)), DirectedGraphOperations.getSCCs(plain));
+    assertEquals(2, plain.edgeCount());
+  }
+
+  @Test
+  public void testNegativeVertex() {
+    assertThrows(IllegalArgumentException.class, () -> graph.addVertex(-1));
+  }
+
+  @Test
+  public void testBackingLTS() {
+    LTS<Integer, String> lts = new HashMapLTS<>(new IntDirectedGraph<>(LTSEdge::getAction, LTSEdge::new));
+    lts.addState(0);
+    lts.addTransition(0, 1, "a");
+    lts.addTransition(0, 2, "a");
+
+    assertEquals(Set.of(1, 2), lts.targets(0, "a"));
+    assertEquals(Set.of(), lts.targets(1, "a"));
+  }
+
+  @Test
+  public void testBackingAutomaton() {
+    GraphDeterministicAutomaton<Integer, Character> automaton =
+        new GraphDeterministicAutomaton<>(new IntDirectedGraph<>(AutomatonEdge::getSymbol, AutomatonEdge::new));
+    automaton.setInitialState(0);
+    automaton.addFinalState(2);
+    automaton.addTransition(0, 1, 'a');
+    automaton.addTransition(1, 2, 'b');
+
+    assertTrue(automaton.evaluate(List.of('a', 'b')));
+    assertFalse(automaton.evaluate(List.of('a')));
+    assertThrows(IllegalArgumentException.class, () -> new HashMapLTS<>(graph));
+  }
+}
@@ -0,0 +1,109 @@
+package lkh.lts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BeliefTransitionCacheTest {
+  private LTS<String, String> lts;
+
+  @BeforeEach
+  void setUp() {
+    lts = new HashMapLTS<>();
+    lts.addTransition("s0", "s1", "a");
+    lts.addTransition("s0", "s2", "a");
+    lts.addTransition("s1", "s3", "a");
+    lts.addTransition("s2", "s3", "a");
+    lts.addTransition("s1", "s0", "b");
+  }
+
+  @Test
+  void testInternIsHashConsed() {
+    BeliefTransitionCache<String, String> cache = new BeliefTransitionCache<>(lts);
+
+    int first = cache.intern(Set.of("s1", "s2"));
+    int second = cache.intern(Set.of("s2", "s1"));
+
+    assertEquals(first, second);
+    assertNotEquals(first, cache.intern(Set.of("s1")));
+    assertEquals(Set.of("s1", "s2"), cache.states(first));
+  }
+
+  @Test
+  void testSuccessor() {
+    BeliefTransitionCache<String, String> cache = new BeliefTransitionCache<>(lts);
+    int s0 = cache.intern(Set.of("s0"));
+
+    int next = cache.successor(s0, "a");
+    assertEquals(Set.of("s1", "s2"), cache.states(next));
+    assertEquals(Set.of("s3"), cache.states(cache.successor(next, "a")));
+  }
+
+  @Test
+  void testSuccessorNotStronglyExecutable() {
+    BeliefTransitionCache<String, String> cache = new BeliefTransitionCache<>(lts);
+    int s1s2 = cache.intern(Set.of("s1", "s2"));
+
+    // 'b' is only executable in s1
+    assertEquals(BeliefTransitionCache.NONE, cache.successor(s1s2, "b"));
+    assertEquals(Set.of("s0"), cache.states(cache.successor(cache.intern(Set.of("s1")), "b")));
+  }
+
+  @Test
+  void testHitsAndMisses() {
+    BeliefTransitionCache<String, String> cache = new BeliefTransitionCache<>(lts);
+    int s0 = cache.intern(Set.of("s0"));
+
+    cache.successor(s0, "a");
+    cache.successor(s0, "a");
+    cache.successor(s0, "b");
+    cache.successor(s0, "b");
+
+    assertEquals(2, cache.getMisses());
+    assertEquals(2, cache.getHits());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  @Test
+  void testEviction() {
+    BeliefTransitionCache<String, String> cache = new BeliefTransitionCache<>(lts, 1);
+    int s0 = cache.intern(Set.of("s0"));
+
+    int first = cache.successor(s0, "a");
+    cache.successor(s0, "b");
+
+    // The first transition was evicted, recomputing it must give the same macrostate
+    assertEquals(first, cache.successor(s0, "a"));
+    assertEquals(3, cache.getMisses());
+    assertEquals(2, cache.getEvictions());
+  }
+
+  @Test
+  void testReclaim() {
+    BeliefTransitionCache<String, String> cache = new BeliefTransitionCache<>(lts, 16, 2);
+    cache.intern(Set.of("s0"));
+    cache.intern(Set.of("s1"));
+    assertFalse(cache.reclaim());
+
+    cache.successor(cache.intern(Set.of("s0")), "a");
+    cache.intern(Set.of("s3"));
+    assertEquals(4, cache.macrostateCount());
+    assertTrue(cache.reclaim());
+    assertEquals(0, cache.macrostateCount());
+    assertEquals(1, cache.getEvictions());
+
+    // Ids are given again from scratch, and transitions are recomputed
+    int s0 = cache.intern(Set.of("s0"));
+    assertEquals(0, s0);
+    assertEquals(Set.of("s1", "s2"), cache.states(cache.successor(s0, "a")));
+  }
+
+  @Test
+  void testInvalidCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new BeliefTransitionCache<>(lts, 0));
+    assertThrows(IllegalArgumentException.class, () -> new BeliefTransitionCache<>(lts, 1, 0));
+  }
+}
@@ -0,0 +1,77 @@
+package lkh.lts;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BisimulationQuotientTest {
+  @Test
+  void testSymmetricBranchesAreMerged() {
+    // s0 branches by 'a' into two copies of the same chain
+    LTS<String, String> lts = new HashMapLTS<>();
+    lts.addState("s0", Set.of("p"));
+    lts.addState("l1", Set.of("q"));
+    lts.addState("r1", Set.of("q"));
+    lts.addState("l2", Set.of("r"));
+    lts.addState("r2", Set.of("r"));
+    lts.addTransition("s0", "l1", "a");
+    lts.addTransition("s0", "r1", "a");
+    lts.addTransition("l1", "l2", "b");
+    lts.addTransition("r1", "r2", "b");
+
+    BisimulationQuotient<String, String> quotient = new BisimulationQuotient<>(lts);
+
+    assertEquals(3, quotient.getBlockCount());
+    assertEquals(quotient.blockOf("l1"), quotient.blockOf("r1"));
+    assertEquals(Set.of("l2", "r2"), quotient.getBlock(quotient.blockOf("l2")));
+
+    LTS<Integer, String> reduced = quotient.getQuotient();
+    int s0 = quotient.blockOf("s0");
+    assertEquals(Set.of("p"), reduced.getLabels(s0));
+    assertEquals(Set.of(quotient.blockOf("l1")), reduced.targets(s0, "a"));
+    assertEquals(Set.of(quotient.blockOf("l2")), reduced.targets(quotient.blockOf("l1"), "b"));
+  }
+
+  @Test
+  void testSameLabelsDifferentBehaviour() {
+    // x and y have the same labels, but only x can do 'a' into a state labelled q
+    LTS<String, String> lts = new HashMapLTS<>();
+    lts.addState("x", Set.of("p"));
+    lts.addState("y", Set.of("p"));
+    lts.addState("z", Set.of("q"));
+    lts.addTransition("x", "z", "a");
+    lts.addTransition("y", "y", "a");
+
+    BisimulationQuotient<String, String> quotient = new BisimulationQuotient<>(lts);
+
+    assertEquals(3, quotient.getBlockCount());
+    assertNotEquals(quotient.blockOf("x"), quotient.blockOf("y"));
+  }
+
+  @Test
+  void testCyclesAreMerged() {
+    // Two cycles of different length with the same labels everywhere are bisimilar
+    LTS<Integer, String> lts = new HashMapLTS<>();
+    for (int i = 0; i < 5; i++) lts.addState(i, Set.of("p"));
+    lts.addTransition(0, 1, "a");
+    lts.addTransition(1, 0, "a");
+    lts.addTransition(2, 3, "a");
+    lts.addTransition(3, 4, "a");
+    lts.addTransition(4, 2, "a");
+
+    BisimulationQuotient<Integer, String> quotient = new BisimulationQuotient<>(lts);
+
+    assertEquals(1, quotient.getBlockCount());
+    assertEquals(Set.of(0), quotient.getQuotient().targets(0, "a"));
+  }
+
+  @Test
+  void testUnknownState() {
+    LTS<String, String> lts = new HashMapLTS<>();
+    lts.addState("x", Set.of());
+
+    assertThrows(IllegalArgumentException.class, () -> new BisimulationQuotient<>(lts).blockOf("y"));
+  }
+}
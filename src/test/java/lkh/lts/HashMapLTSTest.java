@@ -3,6 +3,7 @@ package lkh.lts;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.*;
+import lkh.utils.IndexedSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -127,6 +128,18 @@ public class HashMapLTSTest {
     assertTrue(labels.contains("label1"), "Expected 'label1' to be associated with 'A'");
   }
 
+  @Test
+  void testAddLabelToIndexedLabels() {
+    IndexedSet.Universe<String> universe = new IndexedSet.Universe<>(List.of("label1", "label2"));
+    Set<String> indexed = universe.of(List.of("label1"));
+    lts.addState("A", indexed);
+    assertSame(indexed, lts.getLabels("A"));
+
+    lts.addLabel("A", "label3");
+    assertEquals(Set.of("label1", "label3"), lts.getLabels("A"));
+    assertEquals(Set.of("label1"), indexed);
+  }
+
   @Test
   void testAddLabelWithNullState() {
     // Verify that adding a label with a null state throws a NullPointerException
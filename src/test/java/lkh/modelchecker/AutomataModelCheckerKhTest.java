@@ -4,19 +4,32 @@ import lkh.expression.Expression;
 import lkh.expression.parser.ParseException;
 import lkh.lts.HashMapLTS;
 import lkh.lts.LTS;
+import lkh.lts.LTSIndex;
+import lkh.utils.CacheStats;
+import lkh.utils.Pair;
+import logger.LogEvent;
+import logger.Logger;
+import logger.LoggerContext;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AutomataModelCheckerKhTest {
   static AutomataModelChecker<Integer, Character> modelChecker;
@@ -73,4 +86,140 @@ public class AutomataModelCheckerKhTest {
         //Arguments.of("u", "q")
     );
   }
+
+  @Test
+  void testKhAutomatonCacheIsReused() throws ParseException {
+    modelChecker.witnesses(Expression.of("p and q"), Expression.of("s or t"), 3);
+    modelChecker.witnesses(Expression.of("p and q"), Expression.of("s or t"), 5);
+
+    CacheStats stats = modelChecker.getKhAutomatonCache().getStats();
+    assertEquals(1, stats.misses());
+    assertEquals(1, stats.hits());
+    assertEquals(1, stats.size());
+  }
+
+  @Test
+  void testCheckDoesNotBuildKhAutomaton() throws ParseException {
+    assertEquals(true, modelChecker.check(Expression.of("kh(p and q, s or t)")));
+    assertEquals(false, modelChecker.check(Expression.of("kh(p and q, r)")));
+
+    assertEquals(0, modelChecker.getKhAutomatonCache().size());
+    assertEquals(2, modelChecker.getCond2CacheStats().misses());
+  }
+
+  @Test
+  void testStatesHoldingCacheStats() throws ParseException {
+    modelChecker.check(Expression.of("kh(p and q, s or t)"));
+    CacheStats first = modelChecker.getStatesHoldingCacheStats();
+    modelChecker.check(Expression.of("kh(p and q, s or t)"));
+    CacheStats second = modelChecker.getStatesHoldingCacheStats();
+
+    assertTrue(first.misses() > 0);
+    assertEquals(first.misses(), second.misses());
+    assertTrue(second.hits() > first.hits());
+    // Each set weighs its number of states plus one
+    assertTrue(second.weight() >= second.size());
+  }
+
+  @Test
+  void testCheckLogsExploredSize() throws ParseException {
+    List<Pair<Integer, Integer>> sizes = new ArrayList<>();
+    Logger logger = new Logger() {
+      public void log(LogEvent event) {}
+      public void printLog() {}
+      public void setSize(Pair<Integer, Integer> size) {
+        sizes.add(size);
+      }
+    };
+
+    try (var scope = LoggerContext.withLogger(logger)) {
+      modelChecker.check(Expression.of("kh(p and q, s or t)"));
+    }
+
+    assertEquals(1, sizes.size());
+    assertTrue(sizes.get(0).key() > 0);
+  }
+
+  @Test
+  void testCond1IsSharedBetweenGoals() throws ParseException {
+    modelChecker.check(Expression.of("kh(p and q, s or t)"));
+    modelChecker.check(Expression.of("kh(p and q, t)"));
+    modelChecker.check(Expression.of("kh(q and p, s)"));
+
+    // p and q hold in 0 and 4, so there are two aStar automata and a single cond1
+    assertEquals(2, modelChecker.getAStarCacheStats().misses());
+    assertEquals(1, modelChecker.getCond1CacheStats().misses());
+    assertEquals(2, modelChecker.getCond1CacheStats().hits());
+    assertEquals(3, modelChecker.getCond2CacheStats().misses());
+  }
+
+  @Test
+  void testShortestWitnesses() throws ParseException {
+    Expression initExpr = Expression.of("q and r");
+    Expression endExpr = Expression.of("p or t");
+
+    assertEquals(List.of(List.of('b'), List.of('c')), modelChecker.shortestWitnesses(initExpr, endExpr, 2, 6).stream()
+        .sorted(Comparator.comparing(Object::toString)).toList());
+    assertEquals(1, modelChecker.shortestWitnesses(initExpr, endExpr, 1, 6).size());
+    assertEquals(List.of(), modelChecker.shortestWitnesses(initExpr, endExpr, 0, 6));
+  }
+
+  @Test
+  void testCheapestWitnesses() throws ParseException {
+    Expression initExpr = Expression.of("q and r");
+    Expression endExpr = Expression.of("p or t");
+
+    Iterator<List<Character>> witnesses = modelChecker.cheapestWitnesses(initExpr, endExpr, action -> action == 'b' ? 3 : 1, 6);
+    assertEquals(List.of('c'), witnesses.next());
+    assertEquals(List.of('b'), witnesses.next());
+  }
+
+  @Test
+  void testWitnessStream() throws ParseException {
+    Expression initExpr = Expression.of("q and r");
+    Expression endExpr = Expression.of("p or t");
+    LTSIndex<Integer, Character> index = modelChecker.getIndex();
+
+    Set<List<Character>> expected = new HashSet<>();
+    modelChecker.witnesses(initExpr, endExpr, 4).forEachRemaining(expected::add);
+
+    Set<List<Character>> streamed = modelChecker.witnessStream(initExpr, endExpr, 4, WitnessBudget.unlimited())
+        .map(plan -> Arrays.stream(plan).mapToObj(index::action).toList())
+        .collect(Collectors.toSet());
+
+    assertEquals(expected, streamed);
+  }
+
+  @Test
+  void testWitnessStreamBudget() throws ParseException {
+    Expression initExpr = Expression.of("q and r");
+    Expression endExpr = Expression.of("p or t");
+
+    assertEquals(2, modelChecker.witnessStream(initExpr, endExpr, 4, WitnessBudget.ofCount(2)).count());
+    assertEquals(0, modelChecker.witnessStream(initExpr, endExpr, 4, WitnessBudget.unlimited().withCancellation(() -> true)).count());
+    assertEquals(0, modelChecker.witnessStream(initExpr, endExpr, 4, WitnessBudget.ofCount(0)).count());
+  }
+
+  @Test
+  void testWitnessStreamIsLazy() throws ParseException {
+    Expression initExpr = Expression.of("q and r");
+    Expression endExpr = Expression.of("p or t");
+
+    Stream<int[]> stream = modelChecker.witnessStream(initExpr, endExpr, 4, WitnessBudget.unlimited());
+    assertEquals(0, modelChecker.getKhAutomatonCache().size());
+
+    assertEquals(1, stream.limit(1).count());
+    assertEquals(1, modelChecker.getKhAutomatonCache().size());
+  }
+
+  @Test
+  void testWitnessStreamWithoutTimeLimit() throws ParseException {
+    Expression initExpr = Expression.of("q and r");
+    Expression endExpr = Expression.of("p or t");
+    long expected = modelChecker.witnessStream(initExpr, endExpr, 4, WitnessBudget.unlimited()).count();
+
+    WitnessBudget budget = WitnessBudget.unlimited().withMaxTime(Duration.ofSeconds(Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, budget.maxNanos());
+    assertEquals(expected, modelChecker.witnessStream(initExpr, endExpr, 4, budget).count());
+  }
 }
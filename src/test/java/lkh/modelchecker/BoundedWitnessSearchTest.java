@@ -0,0 +1,84 @@
+package lkh.modelchecker;
+
+import lkh.expression.Expression;
+import lkh.expression.parser.ParseException;
+import lkh.lts.HashMapLTS;
+import lkh.lts.LTS;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedWitnessSearchTest {
+  static LTS<Integer, Character> lts;
+  static AutomataModelChecker<Integer, Character> modelChecker;
+
+  @BeforeEach
+  void setUp() {
+    lts = new HashMapLTS<>();
+    lts.addState(0, Set.of("p", "q", "s"));
+    lts.addState(1, Set.of("q", "r"));
+    lts.addState(2, Set.of("p", "s"));
+    lts.addState(3, Set.of("t"));
+
+    lts.addState(4, Set.of("p", "q"));
+    lts.addState(5, Set.of("s"));
+    lts.addState(6, Set.of("t"));
+
+    lts.addTransition(0, 1, 'a');
+    lts.addTransition(1, 2, 'b');
+    lts.addTransition(1, 3, 'c');
+    lts.addTransition(3, 0, 'b');
+
+    lts.addTransition(4, 5, 'a');
+    lts.addTransition(5, 6, 'b');
+
+    modelChecker = new AutomataModelChecker<>(lts, 0);
+  }
+
+  @ParameterizedTest
+  @MethodSource({"boundedWitnessProvider"})
+  void testBoundedWitness(String initExprString, String endExprString, int lengthLimit, Optional<List<Character>> expected) throws ParseException {
+    Expression initExpr = Expression.of(initExprString);
+    Expression endExpr = Expression.of(endExprString);
+
+    assertEquals(expected, modelChecker.boundedWitness(initExpr, endExpr, lengthLimit));
+  }
+
+  private static Stream<Arguments> boundedWitnessProvider() {
+    return Stream.of(
+        Arguments.of("p and q", "s or t", 3, Optional.of(List.of('a', 'b'))),
+        Arguments.of("p and q", "s or t", 1, Optional.empty()),
+        Arguments.of("p", "p", 3, Optional.of(List.of())),
+        Arguments.of("q and r", "r", 6, Optional.of(List.of())),
+        Arguments.of("q and r", "p", 6, Optional.of(List.of('b'))),
+        Arguments.of("q and r", "t and not p", 6, Optional.of(List.of('c'))),
+        Arguments.of("u", "p", 3, Optional.empty())
+    );
+  }
+
+  @Test
+  void testNotStronglyExecutable() {
+    // 'c' is executable from 1 but not from 5, so no plan leads both of them to t
+    BoundedWitnessSearch<Integer, Character> search = new BoundedWitnessSearch<>(lts);
+
+    assertEquals(Optional.empty(), search.search(Set.of(1, 5), Set.of(3), 5));
+    assertEquals(Optional.of(List.of('c')), search.search(Set.of(1), Set.of(3), 5));
+  }
+
+  @Test
+  void testCycleDoesNotPreventTermination() {
+    BoundedWitnessSearch<Integer, Character> search = new BoundedWitnessSearch<>(lts);
+
+    assertEquals(Optional.empty(), search.search(Set.of(0), Set.of(6), 1000));
+    assertEquals(Optional.of(List.of('c', 'b')), search.search(Set.of(1), Set.of(0), 1000));
+  }
+}
@@ -0,0 +1,81 @@
+package lkh.modelchecker;
+
+import lkh.expression.Expression;
+import lkh.expression.parser.ParseException;
+import lkh.lts.HashMapLTS;
+import lkh.lts.LTS;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuotientModelCheckerTest {
+  private LTS<Integer, Character> lts;
+
+  @BeforeEach
+  void setUp() {
+    // Two symmetric copies: 0 -a-> {1, 2}, 1 -b-> 3, 2 -b-> 4, plus 5 -a-> 6 -c-> 7
+    lts = new HashMapLTS<>();
+    lts.addState(0, Set.of("p"));
+    lts.addState(1, Set.of("q"));
+    lts.addState(2, Set.of("q"));
+    lts.addState(3, Set.of("r"));
+    lts.addState(4, Set.of("r"));
+    lts.addState(5, Set.of("p"));
+    lts.addState(6, Set.of("q"));
+    lts.addState(7, Set.of("s"));
+
+    lts.addTransition(0, 1, 'a');
+    lts.addTransition(0, 2, 'a');
+    lts.addTransition(1, 3, 'b');
+    lts.addTransition(2, 4, 'b');
+    lts.addTransition(5, 6, 'a');
+    lts.addTransition(6, 7, 'c');
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"kh(p, r)", "kh(p, q)", "kh(p, r or s)", "kh(q, r)", "p and kh(q, r or s)", "q", "not kh(r, s)"})
+  void testAgreesWithAutomataModelChecker(String expressionString) throws ParseException {
+    Expression expression = Expression.of(expressionString);
+
+    for (int state : lts.getStates()) {
+      AutomataModelChecker<Integer, Character> expected = new AutomataModelChecker<>(lts, state);
+      QuotientModelChecker<Integer, Character> actual = new QuotientModelChecker<>(lts, state);
+      assertEquals(expected.check(expression), actual.check(expression), "state " + state);
+    }
+  }
+
+  @Test
+  void testWitnesses() throws ParseException {
+    QuotientModelChecker<Integer, Character> modelChecker = new QuotientModelChecker<>(lts, 0);
+    Expression initExpr = Expression.of("q");
+    Expression endExpr = Expression.of("r or s");
+
+    Set<List<Character>> witnesses = new HashSet<>();
+    modelChecker.witnesses(initExpr, endExpr, 3).forEachRemaining(witnesses::add);
+    assertEquals(Set.of(), witnesses);
+
+    assertEquals(List.of(List.of('a')), modelChecker.shortestWitnesses(Expression.of("p"), Expression.of("q"), 5, 3));
+    // 1 and 2 are merged, and so are 3 and 4
+    assertEquals(6, modelChecker.getQuotient().getBlockCount());
+  }
+
+  @Test
+  void testWitnessStreamUsesOriginalIndex() throws ParseException {
+    QuotientModelChecker<Integer, Character> modelChecker = new QuotientModelChecker<>(lts, 0);
+
+    Set<List<Character>> plans = modelChecker.witnessStream(Expression.of("p"), Expression.of("q"), 3, WitnessBudget.unlimited())
+        .map(plan -> Arrays.stream(plan).mapToObj(id -> modelChecker.getIndex().action(id)).toList())
+        .collect(Collectors.toSet());
+
+    assertEquals(Set.of(List.of('a')), plans);
+  }
+}
@@ -1,17 +1,31 @@
 package lkh.pddl;
 
+import lkh.expression.Expression;
 import lkh.lts.LTS;
+import lkh.lts.builder.ExplorationStrategy;
 import lkh.lts.builder.PDDL;
+import lkh.modelchecker.AutomataModelChecker;
+import lkh.planning.Action;
+import lkh.planning.Fluent;
+import lkh.planning.IncrementalState;
 import lkh.planning.pddl4j.Pddl4jProblem;
+import lkh.utils.IndexedSet;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.io.FileNotFoundException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -48,4 +62,329 @@ public class PDDLTest {
 
     assertThrows(IllegalArgumentException.class, () -> new Pddl4jProblem(domainFilename, problemFilename));
   }
+
+  @Test
+  public void testFluentCollections() throws FileNotFoundException {
+    Pddl4jProblem problem = new Pddl4jProblem("src/test/resources/pddl/domain.pddl", "src/test/resources/pddl/problem.pddl");
+    Action action = problem.getActions().get(0);
+    assertSame(action.getPrecondition(), action.getPrecondition());
+    assertSame(action.getEffects(), action.getEffects());
+
+    Collection<Fluent> fluents = problem.getInitialState().getFluents();
+    assertEquals(2, fluents.size());
+    assertTrue(fluents.containsAll(problem.getFluents()));
+    assertEquals(Set.of("p(x)", "p(y)"), fluents.stream().map(Object::toString).collect(Collectors.toSet()));
+  }
+
+  @Test
+  public void testSuccessorsAreLookedUpByHash() throws FileNotFoundException {
+    PDDL gripper = new PDDL("src/test/resources/pddl/gripper-domain.pddl", "src/test/resources/pddl/gripper-problem.pddl");
+    LTS<Integer, String> gripperLts = gripper.buildLTS();
+
+    // Every reachable state is found once: 2 robot positions, each ball in a room or a gripper
+    assertEquals(88, gripperLts.getStates().size());
+    Set<Set<String>> labels = gripperLts.getStates().stream().map(gripperLts::getLabels).collect(Collectors.toSet());
+    assertEquals(88, labels.size());
+  }
+
+  @Test
+  public void testIncrementalHash() throws FileNotFoundException {
+    Pddl4jProblem problem = new Pddl4jProblem("src/test/resources/pddl/domain.pddl", "src/test/resources/pddl/problem.pddl");
+    IncrementalState init = (IncrementalState) problem.getInitialState();
+    Action a = problem.getActions().stream().filter(action -> action.getName().equals("a")).findFirst().orElseThrow();
+    Action c = problem.getActions().stream().filter(action -> action.getName().equals("c")).findFirst().orElseThrow();
+
+    IncrementalState state = init.copy();
+    state.apply(a);
+    assertEquals(init.successorHash(a), state.longHash());
+    assertTrue(init.successorEquals(a, state));
+    assertFalse(init.successorEquals(c, state));
+
+    // a removes p(y) and c adds it back, so the hash returns to the initial one
+    state.apply(c);
+    assertEquals(init, state);
+    assertEquals(init.longHash(), state.longHash());
+    assertEquals(init.hashCode(), state.hashCode());
+  }
+
+  @Test
+  public void testHashCompaction() throws FileNotFoundException {
+    PDDL gripper = new PDDL("src/test/resources/pddl/gripper-domain.pddl", "src/test/resources/pddl/gripper-problem.pddl");
+    PDDL compacted = new PDDL("src/test/resources/pddl/gripper-domain.pddl", "src/test/resources/pddl/gripper-problem.pddl");
+    compacted.setHashCompaction(true);
+    LTS<Integer, String> gripperLts = gripper.buildLTS();
+    LTS<Integer, String> compactedLts = compacted.buildLTS();
+
+    // Both explorations number the states in breadth-first order
+    assertEquals(gripperLts.getStates(), compactedLts.getStates());
+    for (int state : gripperLts.getStates()) {
+      assertEquals(gripperLts.getLabels(state), compactedLts.getLabels(state));
+      assertInstanceOf(IndexedSet.class, compactedLts.getLabels(state));
+      for (String action : gripperLts.getActions(state)) {
+        assertEquals(gripperLts.targets(state, action), compactedLts.targets(state, action));
+      }
+    }
+  }
+
+  @Test
+  public void testHashCompactionRejectsOtherReductions() throws FileNotFoundException {
+    String resourcesPath = "src/test/resources/pddl";
+    PDDL reduced = new PDDL(resourcesPath + "/gripper-domain.pddl", resourcesPath + "/gripper-problem.pddl");
+    PDDL symmetric = new PDDL(resourcesPath + "/gripper-domain.pddl", resourcesPath + "/gripper-problem.pddl");
+    PDDL relevant = new PDDL(resourcesPath + "/gripper-domain.pddl", resourcesPath + "/gripper-problem.pddl");
+    reduced.setReduce(true);
+    symmetric.setSymmetry(true);
+    relevant.setRelevance(true);
+
+    for (PDDL pddl : List.of(reduced, symmetric, relevant)) {
+      pddl.setHashCompaction(true);
+      assertThrows(IllegalStateException.class, pddl::buildLTS);
+    }
+  }
+
+  @Test
+  public void testSettingsRebuildLTS() throws FileNotFoundException {
+    PDDL gripper = new PDDL("src/test/resources/pddl/gripper-domain.pddl", "src/test/resources/pddl/gripper-problem.pddl");
+    LTS<Integer, String> full = gripper.buildLTS();
+    assertSame(full, gripper.buildLTS());
+
+    gripper.setExplorationStrategy(ExplorationStrategy.depthBounded(2));
+    LTS<Integer, String> bounded = gripper.buildLTS();
+    assertTrue(bounded.getStates().size() < full.getStates().size());
+
+    gripper.setExplorationStrategy(ExplorationStrategy.breadthFirst());
+    gripper.setSymmetry(true);
+    assertEquals(72, gripper.buildLTS().getStates().size());
+  }
+
+  @Test
+  public void testDepthFirstExploration() throws FileNotFoundException {
+    LTS<Integer, String> breadthFirst = gripper(ExplorationStrategy.breadthFirst(), false);
+    LTS<Integer, String> depthFirst = gripper(ExplorationStrategy.depthFirst(), false);
+
+    assertEquals(labelSets(breadthFirst), labelSets(depthFirst));
+    assertEquals(breadthFirst.getLabels(0), depthFirst.getLabels(0));
+  }
+
+  @ParameterizedTest
+  @CsvSource({"false", "true"})
+  public void testBoundedExplorations(boolean hashCompaction) throws FileNotFoundException {
+    LTS<Integer, String> depthBounded = gripper(ExplorationStrategy.depthBounded(2), hashCompaction);
+    LTS<Integer, String> depthFirst = gripper(ExplorationStrategy.depthFirst(2), hashCompaction);
+
+    // Both find the states within two steps of the initial one, and taking a ball to roomb takes three
+    assertTrue(depthBounded.getStates().size() < 88);
+    assertEquals(labelSets(depthBounded), labelSets(depthFirst));
+    assertTrue(labelSets(depthBounded).stream().flatMap(Set::stream).noneMatch(label -> label.endsWith("roomb)") && label.startsWith("at(")));
+  }
+
+  @Test
+  public void testGoalDirectedExploration() throws FileNotFoundException {
+    PDDL full = new PDDL("src/test/resources/pddl/gripper-domain.pddl", "src/test/resources/pddl/gripper-problem.pddl");
+    PDDL goalDirected = new PDDL("src/test/resources/pddl/gripper-domain.pddl", "src/test/resources/pddl/gripper-problem.pddl");
+    goalDirected.setExplorationStrategy(ExplorationStrategy.goalDirected());
+    LTS<Integer, String> fullLts = full.buildLTS();
+    LTS<Integer, String> goalLts = goalDirected.buildLTS();
+
+    Set<String> goal = Set.of("at(ball1, roomb)", "at(ball2, roomb)", "at(ball3, roomb)");
+    assertTrue(goalLts.getStates().stream().anyMatch(state -> goalLts.getLabels(state).containsAll(goal)));
+    assertTrue(goalLts.getStates().size() <= fullLts.getStates().size());
+
+    Expression kh = Expression.kh(full.getInitialExpression(), full.getGoalExpression());
+    assertTrue(new AutomataModelChecker<>(goalLts, goalDirected.getInitialState()).check(kh));
+
+    // The goal was found from a state one fluent away from it, so all of those are expanded
+    for (int state : goalLts.getStates()) {
+      long missing = goal.stream().filter(fluent -> !goalLts.getLabels(state).contains(fluent)).count();
+      if (missing == 1) assertFalse(goalLts.getActions(state).isEmpty());
+    }
+  }
+
+  @Test
+  public void testInvalidExplorationStrategy() {
+    assertThrows(IllegalArgumentException.class, () -> ExplorationStrategy.depthBounded(-1));
+    assertThrows(IllegalArgumentException.class, () -> new ExplorationStrategy(null, 0));
+    assertThrows(IllegalArgumentException.class, () -> new ExplorationStrategy(ExplorationStrategy.Kind.BREADTH_FIRST, 3));
+    assertThrows(IllegalArgumentException.class, () -> new ExplorationStrategy(ExplorationStrategy.Kind.GOAL_DIRECTED, 3));
+    assertThrows(IllegalArgumentException.class, () -> ExplorationStrategy.depthBounded(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testSymmetryReduction() throws FileNotFoundException {
+    String resourcesPath = "src/test/resources/pddl";
+    String domainFilename = resourcesPath + "/gripper-domain.pddl";
+    String problemFilename = resourcesPath + "/gripper-problem.pddl";
+
+    PDDL full = new PDDL(domainFilename, problemFilename);
+    PDDL reduced = new PDDL(domainFilename, problemFilename);
+    reduced.setSymmetry(true);
+    LTS<Integer, String> fullLts = full.buildLTS();
+    LTS<Integer, String> reducedLts = reduced.buildLTS();
+
+    // A successor is only merged when the image of its action reaches the representative from the same state,
+    // so some orbits keep several states
+    assertEquals(88, fullLts.getStates().size());
+    assertEquals(72, reducedLts.getStates().size());
+    assertEquals(fullLts.getLabels(full.getInitialState()), reducedLts.getLabels(reduced.getInitialState()));
+
+    // Swapping balls or grippers leaves the initial and goal expressions unchanged
+    Expression kh = Expression.kh(full.getInitialExpression(), full.getGoalExpression());
+    assertTrue(new AutomataModelChecker<>(fullLts, full.getInitialState()).check(kh));
+    assertTrue(new AutomataModelChecker<>(reducedLts, reduced.getInitialState()).check(kh));
+  }
+
+  @Test
+  public void testSymmetryReductionKeepsInvariantKh() throws FileNotFoundException {
+    String resourcesPath = "src/test/resources/pddl";
+    String domainFilename = resourcesPath + "/gripper-domain.pddl";
+    String problemFilename = resourcesPath + "/gripper-problem.pddl";
+
+    PDDL full = new PDDL(domainFilename, problemFilename);
+    PDDL reduced = new PDDL(domainFilename, problemFilename);
+    reduced.setSymmetry(true);
+    LTS<Integer, String> fullLts = full.buildLTS();
+    LTS<Integer, String> reducedLts = reduced.buildLTS();
+    AutomataModelChecker<Integer, String> fullChecker = new AutomataModelChecker<>(fullLts, full.getInitialState());
+    AutomataModelChecker<Integer, String> reducedChecker = new AutomataModelChecker<>(reducedLts, reduced.getInitialState());
+
+    Expression roomA = Expression.prop("at-robby(rooma)");
+    Expression roomB = Expression.prop("at-robby(roomb)");
+    Expression free = Expression.and(Expression.prop("free(left)"), Expression.prop("free(right)"));
+    Map<Expression, Boolean> expected = Map.of(
+        Expression.kh(Expression.and(free, roomA), Expression.and(free, roomB)), true,
+        Expression.kh(free, roomB), false);
+
+    // The antecedents hold in several states, so a single plan has to work from all of them in both LTSs
+    for (Map.Entry<Expression, Boolean> entry : expected.entrySet()) {
+      Expression kh = entry.getKey();
+      assertTrue(reduced.preserves(kh));
+      assertTrue(reducedLts.getStates().stream().filter(state -> reducedChecker.check(kh.getLeft(), state)).count() > 1);
+      assertEquals(entry.getValue(), fullChecker.check(kh), kh::toString);
+      assertEquals(entry.getValue(), reducedChecker.check(kh), kh::toString);
+    }
+  }
+
+  @Test
+  public void testSymmetryReductionWitnessesAreExecutable() throws FileNotFoundException {
+    String resourcesPath = "src/test/resources/pddl";
+    String domainFilename = resourcesPath + "/gripper-domain.pddl";
+    String problemFilename = resourcesPath + "/gripper-problem.pddl";
+
+    PDDL full = new PDDL(domainFilename, problemFilename);
+    PDDL reduced = new PDDL(domainFilename, problemFilename);
+    reduced.setSymmetry(true);
+    LTS<Integer, String> fullLts = full.buildLTS();
+    LTS<Integer, String> reducedLts = reduced.buildLTS();
+    AutomataModelChecker<Integer, String> fullChecker = new AutomataModelChecker<>(fullLts, full.getInitialState());
+    AutomataModelChecker<Integer, String> reducedChecker = new AutomataModelChecker<>(reducedLts, reduced.getInitialState());
+
+    // Every transition of the reduced LTS is a transition of the problem, so its plans replay on the full LTS
+    Expression goal = full.getGoalExpression();
+    List<List<String>> plans = reducedChecker.shortestWitnesses(full.getInitialExpression(), goal, 10, 20);
+    assertFalse(plans.isEmpty());
+    for (List<String> plan : plans) {
+      int state = full.getInitialState();
+      for (String action : plan) {
+        Set<Integer> targets = fullLts.targets(state, action);
+        assertEquals(1, targets.size(), () -> action + " is not executable in the full LTS");
+        state = targets.iterator().next();
+      }
+      assertTrue(fullChecker.check(goal, state));
+    }
+  }
+
+  @Test
+  public void testSymmetryReductionRejectsObjectSpecificQueries() throws FileNotFoundException {
+    PDDL reduced = new PDDL("src/test/resources/pddl/gripper-domain.pddl", "src/test/resources/pddl/gripper-problem.pddl");
+    reduced.setSymmetry(true);
+    Expression ball1 = Expression.kh(Expression.prop("at-robby(rooma)"), Expression.prop("at(ball1, roomb)"));
+
+    // Swapping the balls changes which ball has to be moved, but not that all of them have to
+    assertFalse(reduced.preserves(ball1));
+    assertTrue(reduced.preserves(Expression.kh(Expression.prop("at-robby(rooma)"), reduced.getGoalExpression())));
+
+    reduced.setQuery(ball1);
+    assertThrows(IllegalArgumentException.class, reduced::buildLTS);
+  }
+
+  @Test
+  public void testSymmetryReductionKeepsAsymmetricProblems() throws FileNotFoundException {
+    PDDL reduced = new PDDL("src/test/resources/pddl/domain.pddl", "src/test/resources/pddl/problem.pddl");
+    reduced.setSymmetry(true);
+    LTS<Integer, String> reducedLts = reduced.buildLTS();
+
+    // x and y are mentioned by the actions, so they can't be swapped
+    assertEquals(lts.getStates().size(), reducedLts.getStates().size());
+  }
+
+  @Test
+  public void testRelevanceAnalysis() throws FileNotFoundException {
+    String resourcesPath = "src/test/resources/pddl";
+    String domainFilename = resourcesPath + "/relevance-domain.pddl";
+    String problemFilename = resourcesPath + "/relevance-problem.pddl";
+
+    PDDL full = new PDDL(domainFilename, problemFilename);
+    PDDL reduced = new PDDL(domainFilename, problemFilename);
+    reduced.setRelevance(true);
+    LTS<Integer, String> fullLts = full.buildLTS();
+    LTS<Integer, String> reducedLts = reduced.buildLTS();
+
+    // Only the position of the robot matters for the goal, so the lights and the paint are dropped
+    assertEquals(2, reducedLts.getStates().size());
+    assertTrue(fullLts.getStates().size() > reducedLts.getStates().size());
+    assertTrue(reducedLts.getActions().stream().allMatch(action -> action.startsWith("move")));
+
+    Expression kh = Expression.kh(full.getInitialExpression(), full.getGoalExpression());
+    assertTrue(new AutomataModelChecker<>(fullLts, full.getInitialState()).check(kh));
+    assertTrue(new AutomataModelChecker<>(reducedLts, reduced.getInitialState()).check(kh));
+  }
+
+  @Test
+  public void testRelevanceAnalysisWithQuery() throws Exception {
+    String resourcesPath = "src/test/resources/pddl";
+    PDDL reduced = new PDDL(resourcesPath + "/relevance-domain.pddl", resourcesPath + "/relevance-problem.pddl");
+    reduced.setRelevance(true);
+    reduced.setQuery(Expression.of("kh(robby_at(rooma), painted(roomb))"));
+    LTS<Integer, String> reducedLts = reduced.buildLTS();
+
+    // Painting roomb needs its light, but not the light of rooma
+    assertTrue(reducedLts.getActions().contains("switch_on(roomb)"));
+    assertFalse(reducedLts.getActions().contains("switch_on(rooma)"));
+    assertFalse(reducedLts.getActions().contains("paint(rooma)"));
+    assertTrue(reducedLts.getStates().stream().noneMatch(state -> reducedLts.getLabels(state).contains("lit(rooma)")));
+
+    Expression kh = Expression.of("kh(robby_at(rooma), painted(roomb))");
+    assertTrue(new AutomataModelChecker<>(reducedLts, reduced.getInitialState()).check(kh));
+  }
+
+  @Test
+  public void testRelevanceAnalysisRejectsDroppedPropositions() throws Exception {
+    String resourcesPath = "src/test/resources/pddl";
+    PDDL reduced = new PDDL(resourcesPath + "/relevance-domain.pddl", resourcesPath + "/relevance-problem.pddl");
+    reduced.setRelevance(true);
+    LTS<Integer, String> goalLts = reduced.buildLTS();
+
+    // Without a query only the position of the robot is kept, so the paint can't be checked
+    Expression kh = Expression.of("kh(robby_at(rooma), painted(roomb))");
+    assertTrue(reduced.preserves(Expression.of("robby_at(roomb)")));
+    assertFalse(reduced.preserves(kh));
+
+    // Setting the query afterwards builds the LTS again
+    reduced.setQuery(kh);
+    assertTrue(reduced.preserves(kh));
+    LTS<Integer, String> queryLts = reduced.buildLTS();
+    assertTrue(queryLts.getStates().size() > goalLts.getStates().size());
+    assertTrue(new AutomataModelChecker<>(queryLts, reduced.getInitialState()).check(kh));
+  }
+
+  private static LTS<Integer, String> gripper(ExplorationStrategy strategy, boolean hashCompaction) throws FileNotFoundException {
+    PDDL gripper = new PDDL("src/test/resources/pddl/gripper-domain.pddl", "src/test/resources/pddl/gripper-problem.pddl");
+    gripper.setExplorationStrategy(strategy);
+    gripper.setHashCompaction(hashCompaction);
+    return gripper.buildLTS();
+  }
+
+  private static Set<Set<String>> labelSets(LTS<Integer, String> lts) {
+    return lts.getStates().stream().map(lts::getLabels).collect(Collectors.toSet());
+  }
 }
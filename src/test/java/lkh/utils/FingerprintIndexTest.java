@@ -0,0 +1,41 @@
+package lkh.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FingerprintIndexTest {
+  @Test
+  void testAddAndFind() {
+    FingerprintIndex index = new FingerprintIndex();
+
+    assertEquals(0, index.add(0));
+    assertEquals(1, index.add(-1));
+    assertEquals(2, index.add(1L << 32));
+
+    assertEquals(0, index.find(0));
+    assertEquals(1, index.find(-1));
+    assertEquals(2, index.find(1L << 32));
+    assertEquals(-1, index.find(1));
+    assertEquals(3, index.size());
+  }
+
+  @Test
+  void testGrow() {
+    FingerprintIndex index = new FingerprintIndex(0);
+    for (long i = 0; i < 10000; i++) {
+      assertEquals(i, index.add(i * 31));
+    }
+
+    assertEquals(10000, index.size());
+    for (long i = 0; i < 10000; i++) {
+      assertEquals(i, index.find(i * 31));
+      assertEquals(-1, index.find(i * 31 + 1));
+    }
+  }
+
+  @Test
+  void testNegativeExpectedSize() {
+    assertThrows(IllegalArgumentException.class, () -> new FingerprintIndex(-1));
+  }
+}
@@ -0,0 +1,52 @@
+package lkh.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedIndexTest {
+  @Test
+  void testAddAndFind() {
+    HashedIndex<String> index = new HashedIndex<>();
+
+    assertEquals(0, index.add(7, "a"));
+    assertEquals(1, index.add(8, "b"));
+
+    assertEquals(0, index.find(7, "a"::equals));
+    assertEquals(1, index.find(8, "b"::equals));
+    assertEquals(-1, index.find(9, "a"::equals));
+    assertEquals("b", index.get(1));
+    assertEquals(2, index.size());
+  }
+
+  @Test
+  void testCollisionsAreResolvedByPredicate() {
+    HashedIndex<String> index = new HashedIndex<>();
+    index.add(42, "a");
+    index.add(42, "b");
+
+    assertEquals(0, index.find(42, "a"::equals));
+    assertEquals(1, index.find(42, "b"::equals));
+    assertEquals(-1, index.find(42, "c"::equals));
+  }
+
+  @Test
+  void testGrow() {
+    HashedIndex<Long> index = new HashedIndex<>(0);
+    for (long i = 0; i < 10000; i++) {
+      assertEquals(i, index.add(i * 31, i));
+    }
+
+    assertEquals(10000, index.size());
+    for (long i = 0; i < 10000; i++) {
+      long value = i;
+      assertEquals(i, index.find(i * 31, stored -> stored == value));
+      assertEquals(-1, index.find(i * 31 + 1, stored -> true));
+    }
+  }
+
+  @Test
+  void testNegativeExpectedSize() {
+    assertThrows(IllegalArgumentException.class, () -> new HashedIndex<>(-1));
+  }
+}
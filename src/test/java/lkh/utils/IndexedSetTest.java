@@ -0,0 +1,54 @@
+package lkh.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedSetTest {
+  @Test
+  void testMembers() {
+    IndexedSet.Universe<String> universe = new IndexedSet.Universe<>(List.of("a", "b", "c"));
+    Set<String> set = universe.of(List.of("c", "a"));
+
+    assertEquals(2, set.size());
+    assertTrue(set.contains("a"));
+    assertFalse(set.contains("b"));
+    assertFalse(set.contains("d"));
+    assertEquals(List.of("a", "c"), new ArrayList<>(set));
+    assertEquals(Set.of("a", "c"), set);
+    assertEquals(Set.of("a", "c").hashCode(), set.hashCode());
+    assertTrue(universe.of(List.of()).isEmpty());
+  }
+
+  @Test
+  void testLargeUniverse() {
+    List<Integer> values = IntStream.range(0, 200).boxed().toList();
+    IndexedSet.Universe<Integer> universe = new IndexedSet.Universe<>(values);
+    Set<Integer> members = new HashSet<>(List.of(0, 63, 64, 127, 199));
+
+    assertEquals(members, universe.of(members));
+    assertEquals(new HashSet<>(values), universe.of(values));
+  }
+
+  @Test
+  void testImmutable() {
+    Set<String> set = new IndexedSet.Universe<>(List.of("a", "b")).of(List.of("a"));
+
+    assertThrows(UnsupportedOperationException.class, () -> set.add("b"));
+    assertThrows(UnsupportedOperationException.class, () -> set.iterator().remove());
+  }
+
+  @Test
+  void testInvalidValues() {
+    IndexedSet.Universe<String> universe = new IndexedSet.Universe<>(List.of("a", "b"));
+
+    assertThrows(IllegalArgumentException.class, () -> universe.of(List.of("c")));
+    assertThrows(IllegalArgumentException.class, () -> new IndexedSet.Universe<>(List.of("a", "a")));
+  }
+}
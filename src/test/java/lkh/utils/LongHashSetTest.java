@@ -0,0 +1,42 @@
+package lkh.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongHashSetTest {
+  @Test
+  void testAddAndContains() {
+    LongHashSet set = new LongHashSet();
+
+    assertTrue(set.add(0));
+    assertTrue(set.add(-1));
+    assertTrue(set.add(1L << 32));
+    assertFalse(set.add(0));
+    assertFalse(set.add(1L << 32));
+
+    assertTrue(set.contains(0));
+    assertTrue(set.contains(-1));
+    assertFalse(set.contains(1));
+    assertEquals(3, set.size());
+  }
+
+  @Test
+  void testGrow() {
+    LongHashSet set = new LongHashSet(0);
+    for (long i = 0; i < 10000; i++) {
+      assertTrue(set.add(i * 31));
+    }
+
+    assertEquals(10000, set.size());
+    for (long i = 0; i < 10000; i++) {
+      assertTrue(set.contains(i * 31));
+      assertFalse(set.contains(i * 31 + 1));
+    }
+  }
+
+  @Test
+  void testNegativeExpectedSize() {
+    assertThrows(IllegalArgumentException.class, () -> new LongHashSet(-1));
+  }
+}
@@ -0,0 +1,73 @@
+package lkh.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightedLruCacheTest {
+  @Test
+  void testHitsAndMisses() {
+    Cache<String, String> cache = new WeightedLruCache<>(100, String::length);
+
+    assertNull(cache.get("a"));
+    cache.put("a", "aaa");
+    assertEquals("aaa", cache.get("a"));
+    assertEquals("aaa", cache.computeIfAbsent("a", k -> "other"));
+
+    CacheStats stats = cache.getStats();
+    assertEquals(2, stats.hits());
+    assertEquals(1, stats.misses());
+    assertEquals(1, stats.size());
+    assertEquals(3, stats.weight());
+  }
+
+  @Test
+  void testEvictsLeastRecentlyUsed() {
+    Cache<String, String> cache = new WeightedLruCache<>(6, String::length);
+    cache.put("a", "aa");
+    cache.put("b", "bb");
+    cache.put("c", "cc");
+
+    // "a" is now the most recently used, so "b" is evicted
+    cache.get("a");
+    cache.put("d", "dd");
+
+    assertNull(cache.get("b"));
+    assertEquals("aa", cache.get("a"));
+    assertEquals("cc", cache.get("c"));
+    assertEquals("dd", cache.get("d"));
+    assertEquals(1, cache.getStats().evictions());
+    assertEquals(6, cache.getStats().weight());
+  }
+
+  @Test
+  void testHeavyValueIsNotCached() {
+    Cache<String, String> cache = new WeightedLruCache<>(2, String::length);
+    cache.put("a", "a");
+    cache.put("b", "bbb");
+
+    assertNull(cache.get("b"));
+    assertEquals("a", cache.get("a"));
+    assertEquals(1, cache.getStats().evictions());
+  }
+
+  @Test
+  void testReplaceUpdatesWeight() {
+    Cache<String, String> cache = new WeightedLruCache<>(10, String::length, true);
+    cache.put("a", "aaaa");
+    cache.put("a", "a");
+
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.getStats().weight());
+    assertEquals("a", cache.get("a"));
+
+    cache.clear();
+    assertEquals(0, cache.getStats().weight());
+    assertNull(cache.get("a"));
+  }
+
+  @Test
+  void testInvalidMaxWeight() {
+    assertThrows(IllegalArgumentException.class, () -> new WeightedLruCache<String, String>(0, String::length));
+  }
+}